@@ -0,0 +1,57 @@
+package benchmarks;
+
+import main.ImplicationGraph;
+import main.Preprocessor;
+import main.TwoSATInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the CSR implication graph, converting it to the Map-based adjacency list, and preprocessing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphBuildBenchmark {
+
+    @Param({"threshold", "chain", "clusters", "planted"})
+    public String kind;
+
+    @Param({"1000000"})
+    public int numVariables;
+
+    private TwoSATInstance instance;
+    private ImplicationGraph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = Instances.generate(kind, numVariables);
+        graph = ImplicationGraph.build(instance);
+    }
+
+    @Benchmark
+    public ImplicationGraph buildCsr() {
+        return ImplicationGraph.build(instance);
+    }
+
+    @Benchmark
+    public Map<Integer, Set<Integer>> toAdjacencyMap() {
+        return graph.toAdjacencyMap();
+    }
+
+    @Benchmark
+    public Preprocessor.Result preprocess() {
+        return Preprocessor.preprocess(instance);
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import main.InstanceGenerator;
+import main.TwoSATInstance;
+
+/**
+ * The instance families the benchmarks are parameterized over
+ */
+final class Instances {
+
+    static final long SEED = 20240601L;
+
+    private Instances() {
+    }
+
+    /**
+     * @param kind threshold, chain, clusters or planted
+     * @param numVariables the number of variables
+     * @return the seeded instance of that kind and size
+     */
+    static TwoSATInstance generate(String kind, int numVariables) {
+        switch (kind) {
+            case "threshold":
+                return InstanceGenerator.threshold(numVariables, SEED);
+            case "chain":
+                return InstanceGenerator.chain(numVariables, SEED);
+            case "clusters":
+                return InstanceGenerator.clusters(numVariables, 64, 2, SEED);
+            case "planted":
+                return InstanceGenerator.planted(numVariables, 2 * numVariables, SEED);
+            default:
+                throw new IllegalArgumentException("Unknown kind: " + kind);
+        }
+    }
+}
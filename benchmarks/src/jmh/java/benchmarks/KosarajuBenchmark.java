@@ -0,0 +1,78 @@
+package benchmarks;
+
+import main.InstanceGenerator;
+import main.SCCTwoSAT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each pass of the Map-based Kosaraju implementation in {@link SCCTwoSAT}. Its depth-first search is
+ * recursive, so the benchmark JVM runs with a large thread stack and the sizes are kept smaller than for
+ * the CSR passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KosarajuBenchmark {
+
+    @Param({"threshold", "chain", "clusters", "planted"})
+    public String kind;
+
+    @Param({"100000"})
+    public int numVariables;
+
+    private SCCTwoSAT solver;
+    private Map<Integer, Set<Integer>> graph;
+    private Map<Integer, Set<Integer>> reverseGraph;
+    private Map<Integer, Set<Integer>> renumberedGraph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File file = Files.createTempFile("bench", ".txt").toFile();
+        try {
+            InstanceGenerator.writeText(Instances.generate(kind, numVariables), file);
+            solver = new SCCTwoSAT();
+            graph = solver.formTwoSATGraph(file);
+        } finally {
+            file.delete();
+        }
+        reverseGraph = solver.formReverseGraph(graph);
+        solver.outerDFSLoop(reverseGraph, true);
+        renumberedGraph = solver.renumberVertices(graph, solver.getFinishingTimeMap());
+    }
+
+    @Benchmark
+    public Map<Integer, Set<Integer>> reverseGraph() {
+        return solver.formReverseGraph(graph);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> firstPass() {
+        solver.outerDFSLoop(reverseGraph, true);
+        return solver.getFinishingTimeMap();
+    }
+
+    @Benchmark
+    public Map<Integer, Set<Integer>> renumber() {
+        return solver.renumberVertices(graph, solver.getFinishingTimeMap());
+    }
+
+    @Benchmark
+    public boolean secondPass() {
+        return solver.outerDFSLoop(renumberedGraph, false);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import main.InstanceGenerator;
+import main.PapaLocalSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The inner loop of Papadimitriou's algorithm, reported per flip. The instance has two clauses per variable,
+ * well past the threshold, so the walk practically never succeeds and every invocation makes exactly
+ * FLIPS flips.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PapaBenchmark {
+
+    private static final int FLIPS = 1 << 20;
+
+    @Param({"10000", "1000000"})
+    public int numVariables;
+
+    private PapaLocalSearch search;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        search = new PapaLocalSearch(InstanceGenerator.random(numVariables, 2 * numVariables, Instances.SEED));
+        random = new SplittableRandom(Instances.SEED);
+        for (int v = 1; v <= numVariables; v++) {
+            search.assign(v, random.nextBoolean());
+        }
+        search.evaluateAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLIPS)
+    public boolean flips() {
+        return search.search(FLIPS, random, null);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import main.BinaryInstanceFormat;
+import main.ClauseLoader;
+import main.InstanceGenerator;
+import main.TwoSATInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading an instance file, in the text format and in the binary format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @Param({"threshold", "planted"})
+    public String kind;
+
+    @Param({"1000000"})
+    public int numVariables;
+
+    private File textFile;
+    private File binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TwoSATInstance instance = Instances.generate(kind, numVariables);
+        textFile = Files.createTempFile("bench", ".txt").toFile();
+        binaryFile = Files.createTempFile("bench", ".bin").toFile();
+        InstanceGenerator.writeText(instance, textFile);
+        BinaryInstanceFormat.write(instance, binaryFile, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        textFile.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public TwoSATInstance loadText() throws IOException {
+        return ClauseLoader.load(textFile);
+    }
+
+    @Benchmark
+    public TwoSATInstance loadBinary() throws IOException {
+        return ClauseLoader.load(binaryFile);
+    }
+}
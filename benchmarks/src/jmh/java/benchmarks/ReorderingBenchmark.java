@@ -0,0 +1,60 @@
+package benchmarks;
+
+import main.ImplicationGraph;
+import main.SCCResult;
+import main.TarjanSCC;
+import main.TwoSATInstance;
+import main.VariableReordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarjan's algorithm over the generated numbering and over the breadth-first numbering of
+ * {@link VariableReordering}, and the cost of computing and applying the reordering
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReorderingBenchmark {
+
+    @Param({"threshold", "chain", "clusters", "planted"})
+    public String kind;
+
+    @Param({"2000000"})
+    public int numVariables;
+
+    private TwoSATInstance instance;
+    private ImplicationGraph original;
+    private ImplicationGraph reordered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = Instances.generate(kind, numVariables);
+        original = ImplicationGraph.build(instance);
+        reordered = ImplicationGraph.build(VariableReordering.compute(instance).apply(instance));
+    }
+
+    @Benchmark
+    public TwoSATInstance reorder() {
+        return VariableReordering.compute(instance).apply(instance);
+    }
+
+    @Benchmark
+    public SCCResult tarjanOriginal() {
+        return TarjanSCC.compute(original, false);
+    }
+
+    @Benchmark
+    public SCCResult tarjanReordered() {
+        return TarjanSCC.compute(reordered, false);
+    }
+}
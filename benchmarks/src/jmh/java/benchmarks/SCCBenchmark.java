@@ -0,0 +1,55 @@
+package benchmarks;
+
+import main.ImplicationGraph;
+import main.ParallelSCC;
+import main.SCCResult;
+import main.TarjanSCC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SCC passes over the CSR implication graph: Tarjan stopping at the first conflict, Tarjan labelling
+ * every vertex, and the parallel forward-backward decomposition
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SCCBenchmark {
+
+    @Param({"threshold", "chain", "clusters", "planted"})
+    public String kind;
+
+    @Param({"1000000"})
+    public int numVariables;
+
+    private ImplicationGraph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = ImplicationGraph.build(Instances.generate(kind, numVariables));
+    }
+
+    @Benchmark
+    public SCCResult tarjan() {
+        return TarjanSCC.compute(graph);
+    }
+
+    @Benchmark
+    public SCCResult tarjanAllComponents() {
+        return TarjanSCC.compute(graph, false);
+    }
+
+    @Benchmark
+    public SCCResult parallel() {
+        return ParallelSCC.compute(graph);
+    }
+}
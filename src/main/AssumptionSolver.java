@@ -0,0 +1,213 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers many satisfiability questions about one base instance under different assumptions, i.e. literals
+ * fixed to true. The base instance is parsed, its implication graph built and its components and
+ * condensation computed once. A question then only follows the condensation from the assumed literals:
+ * the assumptions are consistent exactly when the components they imply contain no literal together with its
+ * negation, and a model is the base model with every implied literal set to true. The cost of a question is
+ * proportional to the part of the condensation the assumptions reach, plus copying the base model when a
+ * model is requested.
+ * The cached structures are never modified and each question borrows its search scratch from a pool owned
+ * by the solver, so one solver can be queried from many threads at once, and its scratch goes away with it.
+ */
+public class AssumptionSolver {
+
+    private final int numVariables;
+    private final Condensation condensation;
+    private final boolean satisfiable;
+    /**
+     * A model of the base instance, or null if it is unsatisfiable
+     */
+    private final BitSet baseModel;
+
+    /**
+     * The search state of one question: a mark per component compared against an epoch, so nothing is cleared
+     * between questions, and a work queue
+     */
+    private static class Scratch {
+        private final int[] mark;
+        private final int[] queue;
+        private int epoch;
+
+        Scratch(int componentCount) {
+            mark = new int[componentCount];
+            queue = new int[componentCount];
+        }
+
+        int nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
+    /**
+     * Scratch returned by finished questions, at most {@link #maxPooled} of them
+     */
+    private final ConcurrentLinkedQueue<Scratch> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled = Runtime.getRuntime().availableProcessors();
+    private final int componentCount;
+
+    /**
+     * @param instance the base instance
+     */
+    public AssumptionSolver(TwoSATInstance instance) {
+        this(ImplicationGraph.build(instance));
+    }
+
+    /**
+     * @param graph the implication graph of the base instance
+     */
+    public AssumptionSolver(ImplicationGraph graph) {
+        this.numVariables = graph.getNumVariables();
+        SCCResult components = TarjanSCC.compute(graph, false);
+        this.condensation = Condensation.build(graph, components);
+        this.satisfiable = components.isSatisfiable();
+        this.baseModel = components.toAssignment();
+        this.componentCount = condensation.getComponentCount();
+    }
+
+    /**
+     * Creates a solver for the instance in a data file
+     * @param file the 2-SAT data file
+     * @return the solver
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static AssumptionSolver load(File file) throws IOException {
+        return new AssumptionSolver(ClauseLoader.load(file));
+    }
+
+    private Scratch borrow() {
+        Scratch state = pool.poll();
+        if (state == null) {
+            return new Scratch(componentCount);
+        }
+        pooled.decrementAndGet();
+        return state;
+    }
+
+    /**
+     * Returns scratch to the pool, or drops it if the pool is full, so the pool holds no more than a
+     * question per core even after a burst of threads
+     */
+    private void release(Scratch state) {
+        if (pooled.incrementAndGet() <= maxPooled) {
+            pool.offer(state);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Finds a model of the base instance in which every assumed literal is true
+     * @param assumptions non-zero literals, e.g. 3 or -3
+     * @return the assignment, where bit v is set if variable v is true, or null if there is none
+     */
+    public BitSet solve(int... assumptions) {
+        Scratch state = borrow();
+        try {
+            int closureSize = propagate(assumptions, state);
+            if (closureSize < 0) {
+                return null;
+            }
+            BitSet model = (BitSet) baseModel.clone();
+            int[] memberOffsets = condensation.getMemberOffsets();
+            int[] members = condensation.getMembers();
+            for (int i = 0; i < closureSize; i++) {
+                int c = state.queue[i];
+                for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                    int vertex = members[m];
+                    model.set((vertex >> 1) + 1, (vertex & 1) == 0);
+                }
+            }
+            return model;
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Checks whether the base instance has a model in which every assumed literal is true, without
+     * building the model
+     * @param assumptions non-zero literals, e.g. 3 or -3
+     * @return true if satisfiable under the assumptions, false if otherwise
+     */
+    public boolean isSatisfiable(int... assumptions) {
+        Scratch state = borrow();
+        try {
+            return propagate(assumptions, state) >= 0;
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Marks every component implied by the assumptions, stopping when one is marked together with its negation
+     * @return the number of implied components, left at the front of the queue, or -1 on a conflict
+     */
+    private int propagate(int[] assumptions, Scratch state) {
+        if (!satisfiable) {
+            return -1;
+        }
+        int epoch = state.nextEpoch();
+        int[] mark = state.mark;
+        int[] queue = state.queue;
+        int[] offsets = condensation.getOffsets();
+        int[] targets = condensation.getTargets();
+        int tail = 0;
+        for (int literal : assumptions) {
+            if (literal == 0 || Math.abs(literal) > numVariables) {
+                throw new IllegalArgumentException("Literal out of range: " + literal);
+            }
+            int c = condensation.getComponent(ImplicationGraph.vertexOf(literal));
+            if (mark[c] != epoch) {
+                if (mark[condensation.getNegatedComponent(c)] == epoch) {
+                    return -1;
+                }
+                mark[c] = epoch;
+                queue[tail++] = c;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int c = queue[head];
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                int d = targets[e];
+                if (mark[d] != epoch) {
+                    if (mark[condensation.getNegatedComponent(d)] == epoch) {
+                        return -1;
+                    }
+                    mark[d] = epoch;
+                    queue[tail++] = d;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * @return true if the base instance is satisfiable without assumptions
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    public Condensation getCondensation() {
+        return condensation;
+    }
+}
@@ -0,0 +1,205 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Finds the backbone of a satisfiable 2-SAT instance: the literals that are true in every satisfying
+ * assignment. A literal x is in the backbone exactly when NOT x implies x, i.e. when the component of NOT x
+ * reaches the component of x in the condensation. All such reachability questions are answered together,
+ * 64 at a time: one bit per source component is pushed down the condensation in topological order, after
+ * which each query is a single array lookup.
+ * Candidates that cannot reach their negation by id bounds are skipped, and so are those already known to be
+ * forced because a forced component implies them. The worst case, long implication chains, remains
+ * O(C * E / 64) for C components and E condensation edges.
+ */
+public class BackboneAnalysis {
+
+    private final Condensation condensation;
+    /**
+     * True for each component whose literals are forced true
+     */
+    private final boolean[] forced;
+
+    private BackboneAnalysis(Condensation condensation, boolean[] forced) {
+        this.condensation = condensation;
+        this.forced = forced;
+    }
+
+    /**
+     * Computes the backbone of the instance behind an implication graph
+     * @param graph the implication graph
+     * @return the backbone, or null if the instance is unsatisfiable
+     */
+    public static BackboneAnalysis compute(ImplicationGraph graph) {
+        return compute(Condensation.build(graph));
+    }
+
+    /**
+     * Computes the backbone from a condensation
+     * @param condensation the condensation of the implication graph
+     * @return the backbone, or null if the instance is unsatisfiable
+     */
+    public static BackboneAnalysis compute(Condensation condensation) {
+        if (!condensation.isSatisfiable()) {
+            return null;
+        }
+        int componentCount = condensation.getComponentCount();
+        int[] offsets = condensation.getOffsets();
+        int[] targets = condensation.getTargets();
+
+        /*
+         * The smallest component id reachable from each component, in one pass in increasing id order.
+         * A component cannot reach anything below it, which rules out most candidates cheaply.
+         */
+        int[] minReach = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            minReach[c] = c;
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                minReach[c] = Math.min(minReach[c], minReach[targets[e]]);
+            }
+        }
+
+        /*
+         * A component only reaches smaller ids, so of each pair only the component with the larger id can
+         * imply its negation. Those candidates are the sources, taken in increasing order so that the
+         * 64 sources of a batch have nearby ids.
+         */
+        int[] candidates = new int[componentCount / 2];
+        int numCandidates = 0;
+        for (int c = 0; c < componentCount; c++) {
+            int negated = condensation.getNegatedComponent(c);
+            if (negated < c && minReach[c] <= negated) {
+                candidates[numCandidates++] = c;
+            }
+        }
+
+        boolean[] forced = new boolean[componentCount];
+        /* Bit i of reach[c] is set if source i of the current batch reaches component c */
+        long[] reach = new long[componentCount];
+        int[] sources = new int[Long.SIZE];
+        /* Components visited by the current batch's search, in post-order */
+        int[] visitedMark = new int[componentCount];
+        Arrays.fill(visitedMark, -1);
+        int[] postOrder = new int[componentCount];
+        int[] stack = new int[componentCount];
+        int[] stackEdge = new int[componentCount];
+        int batch = 0;
+        for (int next = 0; next < numCandidates; batch++) {
+            /*
+             * Fill the batch, skipping candidates already known to imply their negation: everything a forced
+             * component implies is forced too, and is marked as soon as it is found below
+             */
+            int batchSize = 0;
+            int lowest = Integer.MAX_VALUE;
+            int highest = -1;
+            while (batchSize < Long.SIZE && next < numCandidates) {
+                int source = candidates[next++];
+                int negated = condensation.getNegatedComponent(source);
+                if (!forced[negated]) {
+                    reach[source] |= 1L << batchSize;
+                    sources[batchSize++] = source;
+                    lowest = Math.min(lowest, negated);
+                    highest = Math.max(highest, negated);
+                }
+            }
+
+            /*
+             * Depth-first search from the sources, skipping components that are below every negated component
+             * of the batch or cannot reach down to any of them
+             */
+            int numVisited = 0;
+            for (int i = 0; i < batchSize; i++) {
+                if (visitedMark[sources[i]] == batch) {
+                    continue;
+                }
+                visitedMark[sources[i]] = batch;
+                int stackSize = 0;
+                stack[stackSize] = sources[i];
+                stackEdge[stackSize++] = offsets[sources[i]];
+                while (stackSize > 0) {
+                    int c = stack[stackSize - 1];
+                    int e = stackEdge[stackSize - 1];
+                    if (e < offsets[c + 1]) {
+                        stackEdge[stackSize - 1] = e + 1;
+                        int d = targets[e];
+                        if (d >= lowest && minReach[d] <= highest && visitedMark[d] != batch) {
+                            visitedMark[d] = batch;
+                            stack[stackSize] = d;
+                            stackEdge[stackSize++] = offsets[d];
+                        }
+                    } else {
+                        postOrder[numVisited++] = c;
+                        stackSize--;
+                    }
+                }
+            }
+
+            /* Reverse post-order is a topological order of the visited components: push the bits down it */
+            for (int p = numVisited - 1; p >= 0; p--) {
+                int c = postOrder[p];
+                long bits = reach[c];
+                for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                    if (visitedMark[targets[e]] == batch) {
+                        reach[targets[e]] |= bits;
+                    }
+                }
+            }
+            for (int i = 0; i < batchSize; i++) {
+                int negated = condensation.getNegatedComponent(sources[i]);
+                if ((reach[negated] & (1L << i)) != 0 && !forced[negated]) {
+                    markForced(negated, forced, offsets, targets, stack);
+                }
+            }
+            for (int p = 0; p < numVisited; p++) {
+                reach[postOrder[p]] = 0;
+            }
+        }
+        return new BackboneAnalysis(condensation, forced);
+    }
+
+    /**
+     * Marks a component and everything it implies as forced, stopping at components already marked
+     */
+    private static void markForced(int component, boolean[] forced, int[] offsets, int[] targets, int[] stack) {
+        int stackSize = 0;
+        forced[component] = true;
+        stack[stackSize++] = component;
+        while (stackSize > 0) {
+            int c = stack[--stackSize];
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                if (!forced[targets[e]]) {
+                    forced[targets[e]] = true;
+                    stack[stackSize++] = targets[e];
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a literal is true in every satisfying assignment, in O(1)
+     * @param literal a non-zero literal, e.g. 3 or -3
+     * @return true if the literal is forced true, false if otherwise
+     */
+    public boolean isForced(int literal) {
+        return forced[condensation.getComponent(ImplicationGraph.vertexOf(literal))];
+    }
+
+    /**
+     * @return the backbone literals in increasing order of variable
+     */
+    public int[] getBackbone() {
+        int numVertices = condensation.getComponentOf().length;
+        int[] backbone = new int[numVertices / 2];
+        int size = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (forced[condensation.getComponent(v)]) {
+                backbone[size++] = ImplicationGraph.literalOf(v);
+            }
+        }
+        return Arrays.copyOf(backbone, size);
+    }
+
+    public Condensation getCondensation() {
+        return condensation;
+    }
+}
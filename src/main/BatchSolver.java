@@ -0,0 +1,291 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Solves many 2-SAT instance files concurrently. Files are read on virtual threads (or a fixed pool of
+ * platform threads on JVMs without them), text files are parsed on the solver's own fork-join pool, and the
+ * graph work runs on a bounded pool of CPU threads.
+ * A memory budget, charged by an estimate of each instance's heap footprint, caps how much is in flight
+ * so that a few huge files cannot exhaust the heap; a file larger than the whole budget runs on its own.
+ */
+public class BatchSolver implements AutoCloseable {
+
+    /**
+     * Estimated heap bytes per byte of an uncompressed input file: clause arrays plus forward and reverse CSR arrays
+     */
+    private static final int BYTES_PER_INPUT_BYTE = 8;
+    /**
+     * Estimated heap bytes per clause and per variable of a DIMACS instance, whose header gives both counts.
+     * A clause takes 8 bytes of literals and 16 of forward and reverse edges; a variable's two vertices take
+     * two offsets each plus the Tarjan arrays.
+     */
+    private static final int BYTES_PER_CLAUSE = 24;
+    private static final int BYTES_PER_VARIABLE = 56;
+    /**
+     * The platform threads per CPU thread reading files when virtual threads are unavailable
+     */
+    private static final int IO_THREADS_PER_CPU_THREAD = 4;
+
+    /**
+     * The outcome of solving one file
+     */
+    public static class Result {
+        private final File file;
+        private final boolean satisfiable;
+        private final long parseNanos;
+        private final long solveNanos;
+        private final Throwable error;
+
+        Result(File file, boolean satisfiable, long parseNanos, long solveNanos, Throwable error) {
+            this.file = file;
+            this.satisfiable = satisfiable;
+            this.parseNanos = parseNanos;
+            this.solveNanos = solveNanos;
+            this.error = error;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isSatisfiable() {
+            return satisfiable;
+        }
+
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        public long getSolveNanos() {
+            return solveNanos;
+        }
+
+        /**
+         * @return the exception that stopped the file from being solved, or null
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            String verdict = error != null ? "ERROR " + error : satisfiable ? "SAT" : "UNSAT";
+            return String.format("%s\t%s\t%.3f ms\t%.3f ms", file, verdict, parseNanos / 1e6, solveNanos / 1e6);
+        }
+    }
+
+    private final ExecutorService parseExecutor;
+    private final ForkJoinPool parsePool;
+    private final ExecutorService solveExecutor;
+    /**
+     * One permit per KiB of the memory budget
+     */
+    private final Semaphore memoryPermits;
+    private final int totalPermits;
+
+    /**
+     * Creates a batch solver with one CPU thread per core and half the maximum heap as its memory budget
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * @param cpuThreads the number of threads parsing text files and doing graph work
+     * @param memoryBudgetBytes the estimated heap the instances in flight may use together
+     */
+    public BatchSolver(int cpuThreads, long memoryBudgetBytes) {
+        this.parseExecutor = newVirtualThreadExecutor(() -> Executors.newFixedThreadPool(
+                IO_THREADS_PER_CPU_THREAD * cpuThreads, daemonThreads("batch-io-")));
+        this.parsePool = new ForkJoinPool(cpuThreads);
+        this.solveExecutor = Executors.newFixedThreadPool(cpuThreads, daemonThreads("batch-solve-"));
+        this.totalPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes >> 10));
+        this.memoryPermits = new Semaphore(totalPermits, true);
+    }
+
+    /**
+     * Submits one file
+     * @param file the instance file, text or binary
+     * @return a future completed with the file's result, never exceptionally
+     */
+    public CompletableFuture<Result> submit(File file) {
+        /* The permits held, set once acquired so that a failure before then releases none */
+        int[] permits = new int[1];
+        long[] parseNanos = new long[1];
+        return CompletableFuture.supplyAsync(() -> {
+            int estimate = (int) Math.min(totalPermits, Math.max(1, estimateBytes(file) >> 10));
+            memoryPermits.acquireUninterruptibly(estimate);
+            permits[0] = estimate;
+            try {
+                long start = System.nanoTime();
+                TwoSATInstance instance = ClauseLoader.load(file, parsePool);
+                parseNanos[0] = System.nanoTime() - start;
+                return instance;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, parseExecutor).thenApplyAsync(instance -> {
+            long start = System.nanoTime();
+            boolean satisfiable = new SCCTwoSAT().computeSatisfiability(ImplicationGraph.build(instance));
+            return new Result(file, satisfiable, parseNanos[0], System.nanoTime() - start, null);
+        }, solveExecutor).handle((result, error) -> {
+            memoryPermits.release(permits[0]);
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                return new Result(file, false, parseNanos[0], 0, cause);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Estimates the heap an instance will take once loaded. A DIMACS file may be compressed, so its size says
+     * little; its header is read instead, which decompresses only the first few bytes.
+     */
+    private static long estimateBytes(File file) {
+        try {
+            if (DimacsReader.isDimacs(file)) {
+                try (InputStream in = DimacsReader.open(file)) {
+                    DimacsReader reader = new DimacsReader(in);
+                    reader.readHeader();
+                    return (long) reader.getNumClauses() * BYTES_PER_CLAUSE
+                            + (long) reader.getNumVariables() * BYTES_PER_VARIABLE;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            /* Loading the file will report the problem */
+        }
+        return file.length() * BYTES_PER_INPUT_BYTE;
+    }
+
+    /**
+     * Solves every file, streaming the results in completion order
+     * @param files the instance files
+     * @param listener receives each result as it completes, one at a time; if it throws, the remaining
+     *                 results are still delivered
+     */
+    public void solveAll(Collection<File> files, Consumer<Result> listener) {
+        CountDownLatch remaining = new CountDownLatch(files.size());
+        Object listenerLock = new Object();
+        for (File file : files) {
+            submit(file).thenAccept(result -> {
+                try {
+                    synchronized (listenerLock) {
+                        listener.accept(result);
+                    }
+                } finally {
+                    remaining.countDown();
+                }
+            });
+        }
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        parseExecutor.shutdown();
+        parsePool.shutdown();
+        solveExecutor.shutdown();
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread, falling back to a cached pool of
+     * daemon platform threads on JVMs without virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        return newVirtualThreadExecutor(() -> Executors.newCachedThreadPool(daemonThreads("batch-io-")));
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread
+     * @param fallback creates the executor used on JVMs without virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return fallback.get();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Lists the files named by a directory or a glob such as {@code data/2sat*.txt}
+     * @param pattern a directory or a glob on file names
+     * @return the matching regular files
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<File> resolve(String pattern) throws IOException {
+        Path path = Paths.get(pattern);
+        Path directory;
+        String glob;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            glob = "*";
+        } else {
+            directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+        List<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file.toFile());
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Solves the files named by each argument, a directory or a glob, printing one line per file as it
+     * completes: {@code file, verdict, parse time, solve time}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BatchSolver <directory or glob>...");
+            System.exit(1);
+        }
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            files.addAll(resolve(arg));
+        }
+        try (BatchSolver solver = new BatchSolver()) {
+            solver.solveAll(files, System.out::println);
+        }
+    }
+}
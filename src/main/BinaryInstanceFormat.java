@@ -0,0 +1,208 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary on-disk format for 2-SAT instances. All values are little-endian 32-bit integers:
+ * <pre>
+ *   magic ("2SAT"), version, flags, numVariables, numClauses,
+ *   [offsets (2 * numVariables + 1), reverseOffsets (2 * numVariables + 1)]   if flags has OFFSETS,
+ *   clause literals (2 * numClauses)
+ * </pre>
+ * Loading maps the file and hands out int views over the mapping, so once the file is in the page cache
+ * a load costs one sequential pass over the ints, which checks them, and nothing is copied. The whole file
+ * must fit in one mapping (2 GB).
+ */
+public class BinaryInstanceFormat {
+
+    /**
+     * "2SAT" in ASCII, read as a little-endian int
+     */
+    public static final int MAGIC = ('2') | ('S' << 8) | ('A' << 16) | ('T' << 24);
+    public static final int VERSION = 1;
+    /**
+     * Flag set when the CSR offsets of the implication graph follow the header
+     */
+    public static final int FLAG_OFFSETS = 1;
+
+    /**
+     * The number of ints in the header
+     */
+    private static final int HEADER_INTS = 5;
+
+    /**
+     * Checks whether a file starts with the binary format's magic number
+     * @param file the file in question
+     * @return true if the file is in the binary format
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                /* keep reading until the magic number is complete */
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Maps a binary instance file. The returned instance reads its clauses and offsets directly from the
+     * mapping; nothing is copied onto the heap. Every literal is checked to be in range, and stored offsets to
+     * start at 0, never decrease and end at 2 * numClauses. Whether they match the degrees of the literals is
+     * not checked, since that would cost the counting pass they exist to save; offsets written by
+     * {@link #write} always do.
+     * @param file the binary instance file
+     * @return the instance
+     * @throws IOException if the file cannot be read or is not a valid binary instance
+     */
+    public static TwoSATInstance load(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary instance larger than 2 GB: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            IntBuffer ints = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (ints.limit() < HEADER_INTS || ints.get(0) != MAGIC) {
+                throw new IOException("Not a binary 2-SAT instance: " + file);
+            }
+            if (ints.get(1) != VERSION) {
+                throw new IOException("Unsupported binary instance version " + ints.get(1) + ": " + file);
+            }
+            int flags = ints.get(2);
+            int numVariables = ints.get(3);
+            int numClauses = ints.get(4);
+            if (numVariables < 0 || numVariables > (Integer.MAX_VALUE - 1) / 2 || numClauses < 0) {
+                throw new IOException("Malformed binary instance header: " + file);
+            }
+
+            boolean withOffsets = (flags & FLAG_OFFSETS) != 0;
+            int numOffsets = 2 * numVariables + 1;
+            if (HEADER_INTS + (withOffsets ? 2L * numOffsets : 0) + 2L * numClauses > ints.limit()) {
+                throw new IOException("Truncated binary instance: " + file);
+            }
+            int position = HEADER_INTS;
+            IntBuffer offsets = null;
+            IntBuffer reverseOffsets = null;
+            if (withOffsets) {
+                offsets = slice(ints, position, numOffsets);
+                position += numOffsets;
+                reverseOffsets = slice(ints, position, numOffsets);
+                position += numOffsets;
+                checkOffsets(offsets, numClauses, file);
+                checkOffsets(reverseOffsets, numClauses, file);
+            }
+            IntBuffer clauseLiterals = slice(ints, position, 2 * numClauses);
+            for (int i = 0; i < 2 * numClauses; i++) {
+                int literal = clauseLiterals.get(i);
+                if (literal == 0 || literal < -numVariables || literal > numVariables) {
+                    throw new IOException("Literal out of range in clause " + i / 2 + ": " + file);
+                }
+            }
+            return new TwoSATInstance(numVariables, clauseLiterals, numClauses, offsets, reverseOffsets);
+        }
+    }
+
+    /**
+     * Checks that stored offsets start at 0, never decrease and end at the number of edges, two per clause
+     */
+    private static void checkOffsets(IntBuffer offsets, int numClauses, File file) throws IOException {
+        int previous = 0;
+        for (int v = 0; v < offsets.limit(); v++) {
+            int offset = offsets.get(v);
+            if (offset < previous || (v == 0 && offset != 0)) {
+                throw new IOException("Malformed offsets at vertex " + v + ": " + file);
+            }
+            previous = offset;
+        }
+        if (previous != 2L * numClauses) {
+            throw new IOException("Offsets do not end at the number of edges: " + file);
+        }
+    }
+
+    private static IntBuffer slice(IntBuffer ints, int position, int length) {
+        IntBuffer view = ints.duplicate();
+        view.position(position).limit(position + length);
+        return view.slice();
+    }
+
+    /**
+     * Writes an instance in the binary format
+     * @param instance the instance
+     * @param file the file to write
+     * @param withOffsets true to precompute and store the CSR offsets of the implication graph
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(TwoSATInstance instance, File file, boolean withOffsets) throws IOException {
+        int numVariables = instance.getNumVariables();
+        int numClauses = instance.getNumClauses();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(withOffsets ? FLAG_OFFSETS : 0)
+                    .putInt(numVariables).putInt(numClauses);
+
+            if (withOffsets) {
+                int[] offsets = new int[2 * numVariables + 1];
+                int[] reverseOffsets = new int[2 * numVariables + 1];
+                ImplicationGraph.countOffsets(instance, offsets, reverseOffsets);
+                for (int offset : offsets) {
+                    putInt(channel, buffer, offset);
+                }
+                for (int offset : reverseOffsets) {
+                    putInt(channel, buffer, offset);
+                }
+            }
+            IntBuffer clauseLiterals = instance.getClauseLiterals();
+            for (int i = 0; i < 2 * numClauses; i++) {
+                putInt(channel, buffer, clauseLiterals.get(i));
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < 4) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * Converts a text data file into the binary format
+     * @param textFile the text data file
+     * @param binaryFile the binary file to write
+     * @param withOffsets true to precompute and store the CSR offsets of the implication graph
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void convert(File textFile, File binaryFile, boolean withOffsets) throws IOException {
+        write(ClauseLoader.load(textFile), binaryFile, withOffsets);
+    }
+
+    /**
+     * Converts a text data file: {@code BinaryInstanceFormat <input.txt> <output.bin> [--offsets]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BinaryInstanceFormat <input.txt> <output.bin> [--offsets]");
+            System.exit(1);
+        }
+        boolean withOffsets = args.length > 2 && args[2].equals("--offsets");
+        convert(new File(args[0]), new File(args[1]), withOffsets);
+    }
+}
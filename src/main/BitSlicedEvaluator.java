@@ -0,0 +1,167 @@
+package main;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Evaluates a 2-SAT instance under 64 assignments at once. The assignments are stored bit-sliced: each variable
+ * is one long whose bit j is the variable's value in assignment j, its lane. A clause is then evaluated for every
+ * lane with one OR of two words, each complemented if its literal is negative, and the per-lane numbers of
+ * unsatisfied clauses are kept in a vertical counter, one word per bit of the count, so counting costs a few
+ * ANDs and XORs per clause rather than one update per lane.
+ */
+public class BitSlicedEvaluator {
+
+    /**
+     * The number of assignments evaluated per pass, the bits of a long
+     */
+    public static final int LANES = Long.SIZE;
+
+    private final int numVariables;
+    private final int numClauses;
+    /**
+     * Clause i is (clauseVertices[2 * i] OR clauseVertices[2 * i + 1]), as implication graph vertices
+     */
+    private final int[] clauseVertices;
+
+    /**
+     * @param instance the instance whose clauses are evaluated
+     */
+    public BitSlicedEvaluator(TwoSATInstance instance) {
+        this.numVariables = instance.getNumVariables();
+        this.numClauses = instance.getNumClauses();
+        this.clauseVertices = new int[2 * numClauses];
+        for (int i = 0; i < numClauses; i++) {
+            clauseVertices[2 * i] = ImplicationGraph.vertexOf(instance.getFirstLiteral(i));
+            clauseVertices[2 * i + 1] = ImplicationGraph.vertexOf(instance.getSecondLiteral(i));
+        }
+    }
+
+    /**
+     * Fills every lane with an independent uniformly random assignment
+     * @param words receives the variables' words, indexed by variable (0-based)
+     * @param random the source of randomness
+     */
+    public void randomize(long[] words, SplittableRandom random) {
+        for (int v = 0; v < numVariables; v++) {
+            words[v] = random.nextLong();
+        }
+    }
+
+    /**
+     * Finds the lanes whose assignments satisfy every clause, stopping as soon as none is left
+     * @param words the variables' words
+     * @return bit j set if assignment j is a model
+     */
+    public long satisfiedLanes(long[] words) {
+        long satisfied = -1L;
+        for (int i = 0; i < numClauses && satisfied != 0; i++) {
+            satisfied &= clauseWord(words, i);
+        }
+        return satisfied;
+    }
+
+    /**
+     * Counts the unsatisfied clauses of every lane
+     * @param words the variables' words
+     * @return the number of unsatisfied clauses under each of the 64 assignments, indexed by lane
+     */
+    public int[] countUnsatisfied(long[] words) {
+        /* planes[k] holds bit k of every lane's count */
+        long[] planes = new long[LANES - Long.numberOfLeadingZeros(Math.max(1, numClauses))];
+        for (int i = 0; i < numClauses; i++) {
+            long carry = ~clauseWord(words, i);
+            for (int k = 0; carry != 0; k++) {
+                long overflow = planes[k] & carry;
+                planes[k] ^= carry;
+                carry = overflow;
+            }
+        }
+        int[] counts = new int[LANES];
+        for (int k = 0; k < planes.length; k++) {
+            for (long plane = planes[k]; plane != 0; plane &= plane - 1) {
+                counts[Long.numberOfTrailingZeros(plane)] += 1 << k;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the satisfied clauses of any number of assignments, 64 per pass over the clauses
+     * @param assignments the assignments, where bit v is set if variable v (1-based) is true
+     * @return the number of satisfied clauses under each assignment
+     */
+    public int[] countSatisfied(BitSet[] assignments) {
+        int[] satisfied = new int[assignments.length];
+        long[] words = new long[numVariables];
+        for (int from = 0; from < assignments.length; from += LANES) {
+            int lanes = Math.min(LANES, assignments.length - from);
+            pack(assignments, from, lanes, words);
+            int[] unsatisfied = countUnsatisfied(words);
+            for (int j = 0; j < lanes; j++) {
+                satisfied[from + j] = numClauses - unsatisfied[j];
+            }
+        }
+        return satisfied;
+    }
+
+    /**
+     * Transposes up to 64 assignments into bit-sliced words
+     * @param assignments the assignments, where bit v is set if variable v (1-based) is true
+     * @param from the first assignment to pack
+     * @param lanes the number of assignments to pack, at most 64; the remaining lanes are all false
+     * @param words receives the variables' words
+     */
+    public void pack(BitSet[] assignments, int from, int lanes, long[] words) {
+        Arrays.fill(words, 0, numVariables, 0L);
+        for (int j = 0; j < lanes; j++) {
+            BitSet assignment = assignments[from + j];
+            for (int v = assignment.nextSetBit(1); v >= 0 && v <= numVariables; v = assignment.nextSetBit(v + 1)) {
+                words[v - 1] |= 1L << j;
+            }
+        }
+    }
+
+    /**
+     * @param counts a number per lane, such as from {@link #countUnsatisfied(long[])}
+     * @return the lane with the smallest number, the lowest such lane on ties
+     */
+    public static int bestLane(int[] counts) {
+        int best = 0;
+        for (int j = 1; j < counts.length; j++) {
+            if (counts[j] < counts[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param words the variables' words
+     * @param variable the variable, 1-based
+     * @param lane the lane
+     * @return the value of the variable in the lane's assignment
+     */
+    public static boolean valueOf(long[] words, int variable, int lane) {
+        return (words[variable - 1] >>> lane & 1) != 0;
+    }
+
+    public int getNumClauses() {
+        return numClauses;
+    }
+
+    /**
+     * @return bit j set if the clause is satisfied in lane j
+     */
+    private long clauseWord(long[] words, int clause) {
+        return literalWord(words, clauseVertices[2 * clause]) | literalWord(words, clauseVertices[2 * clause + 1]);
+    }
+
+    /**
+     * The word of a literal, complemented without a branch when the vertex is a negation
+     */
+    private static long literalWord(long[] words, int vertex) {
+        return words[vertex >> 1] ^ -(long) (vertex & 1);
+    }
+}
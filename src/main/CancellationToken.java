@@ -0,0 +1,44 @@
+package main;
+
+import java.time.Duration;
+
+/**
+ * A flag that asks long-running searches to stop. Searches poll it every few thousand steps, so a
+ * cancelled search returns shortly after {@link #cancel()} is called. A token may also carry a deadline,
+ * after which it reads as cancelled without anyone calling {@link #cancel()}.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+    /**
+     * The value of {@link System#nanoTime()} at which the token expires, meaningful only if hasDeadline
+     */
+    private final long deadline;
+    private final boolean hasDeadline;
+
+    public CancellationToken() {
+        this.deadline = 0;
+        this.hasDeadline = false;
+    }
+
+    private CancellationToken(long deadline) {
+        this.deadline = deadline;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * @param timeout the time from now after which the token reads as cancelled
+     * @return a token that expires after the timeout, or earlier if cancelled
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        return new CancellationToken(System.nanoTime() + timeout.toNanos());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (hasDeadline && System.nanoTime() - deadline >= 0);
+    }
+}
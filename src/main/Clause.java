@@ -1,6 +1,7 @@
 package main;
 
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a clause in the 2-SAT problem. A disjunction (OR) of two boolean variables.
@@ -40,8 +41,7 @@ public class Clause {
      * @return one of the literals forming the clause
      */
     public int getRandomLiteral() {
-        double x = Math.random();
-        if (x >= 0.5) {
+        if (ThreadLocalRandom.current().nextBoolean()) {
             return firstLiteral;
         }
         return secondLiteral;
@@ -0,0 +1,14 @@
+package main;
+
+/**
+ * Receives clauses one at a time as they are read, so a reader can hand them on without collecting them
+ */
+@FunctionalInterface
+public interface ClauseConsumer {
+
+    /**
+     * @param firstLiteral the first literal of the clause, in the signed convention of the data files
+     * @param secondLiteral the second literal, equal to the first for a unit clause
+     */
+    void accept(int firstLiteral, int secondLiteral);
+}
@@ -0,0 +1,232 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads 2-SAT data files into a {@link TwoSATInstance}. The file is memory-mapped, split into chunks on
+ * newline boundaries, and the chunks are parsed in parallel on a fork-join pool, reading the ASCII
+ * integers straight from the mapped bytes. Blank lines and surrounding whitespace are ignored.
+ * Files in the binary format of {@link BinaryInstanceFormat} are recognised and mapped without parsing, and
+ * DIMACS files, compressed or not, are streamed through {@link DimacsReader}.
+ */
+public class ClauseLoader {
+
+    /**
+     * The smallest chunk worth handing to a separate task
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * The largest chunk, which also bounds the size of a single mapping
+     */
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+
+    /**
+     * Loads a 2-SAT data file on the common fork-join pool
+     * @param file the data file, a header line with the number of variables followed by one clause per line
+     * @return the parsed instance
+     * @throws IOException if the file cannot be read
+     */
+    public static TwoSATInstance load(File file) throws IOException {
+        return load(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads a 2-SAT data file
+     * @param file the data file, a header line with the number of variables followed by one clause per line
+     * @param pool the pool the chunks are parsed on
+     * @return the parsed instance
+     * @throws IOException if the file cannot be read
+     */
+    public static TwoSATInstance load(File file, ForkJoinPool pool) throws IOException {
+        if (BinaryInstanceFormat.isBinary(file)) {
+            return BinaryInstanceFormat.load(file);
+        }
+        if (DimacsReader.isDimacs(file)) {
+            return DimacsReader.load(file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            /* The header is the first non-blank line */
+            long headerStart = 0;
+            long headerEnd = findLineEnd(channel, headerStart);
+            String header = readString(channel, headerStart, headerEnd).trim();
+            while (header.isEmpty() && headerEnd < size) {
+                headerStart = headerEnd;
+                headerEnd = findLineEnd(channel, headerStart);
+                header = readString(channel, headerStart, headerEnd).trim();
+            }
+            int numVariables = Integer.parseInt(header);
+
+            long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                    Math.min(MAX_CHUNK_SIZE, (size - headerEnd) / (4L * pool.getParallelism()) + 1));
+            List<ChunkParser> chunks = new ArrayList<>();
+            long start = headerEnd;
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : findLineEnd(channel, start + chunkSize);
+                chunks.add(new ChunkParser(channel, start, end, numVariables));
+                start = end;
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(chunks);
+                }
+            });
+
+            int numClauses = 0;
+            for (ChunkParser chunk : chunks) {
+                numClauses += chunk.numClauses;
+            }
+            int[] clauseLiterals = new int[2 * numClauses];
+            int position = 0;
+            for (ChunkParser chunk : chunks) {
+                System.arraycopy(chunk.clauseLiterals, 0, clauseLiterals, position, 2 * chunk.numClauses);
+                position += 2 * chunk.numClauses;
+            }
+            return new TwoSATInstance(numVariables, clauseLiterals, numClauses);
+        }
+    }
+
+    /**
+     * Finds the end of the line containing a position
+     * @param channel the file
+     * @param position a position in the file
+     * @return the position just after the next newline, or the file size if there is none
+     */
+    private static long findLineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static String readString(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+            /* keep reading until the line is complete */
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses the clauses in one newline-aligned chunk of the file
+     */
+    @SuppressWarnings("serial")
+    private static class ChunkParser extends RecursiveAction {
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final int numVariables;
+
+        /**
+         * The parsed clauses, packed as pairs
+         */
+        private int[] clauseLiterals;
+        private int numClauses;
+
+        ChunkParser(FileChannel channel, long start, long end, int numVariables) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.numVariables = numVariables;
+        }
+
+        @Override
+        protected void compute() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map bytes " + start + " to " + end, e);
+            }
+            /* A guess of one literal per 4 bytes of text, grown as needed */
+            clauseLiterals = new int[(int) ((end - start) / 4 + 2)];
+            numClauses = 0;
+
+            int limit = buffer.limit();
+            int[] line = new int[2];
+            int literalsOnLine = 0;
+            int i = 0;
+            while (i <= limit) {
+                byte b = i < limit ? buffer.get(i) : (byte) '\n';
+                if (b == '\n') {
+                    if (literalsOnLine == 2) {
+                        addClause(line[0], line[1]);
+                    } else if (literalsOnLine != 0) {
+                        throw new IllegalArgumentException("Expected two literals on the line ending at byte "
+                                + (start + i));
+                    }
+                    literalsOnLine = 0;
+                    i++;
+                } else if (b == ' ' || b == '\t' || b == '\r') {
+                    i++;
+                } else {
+                    /* Parse a signed integer directly from the bytes */
+                    boolean negative = b == '-';
+                    if (negative || b == '+') {
+                        i++;
+                    }
+                    long value = 0;
+                    int digitsStart = i;
+                    while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                        /* Past numVariables the value is out of range already; stop growing it, keep scanning */
+                        if (value <= numVariables) {
+                            value = value * 10 + (b - '0');
+                        }
+                        i++;
+                    }
+                    if (i == digitsStart || (i < limit && !isSeparator(buffer.get(i)))) {
+                        throw new NumberFormatException("Malformed literal at byte " + (start + digitsStart));
+                    }
+                    if (value == 0 || value > numVariables) {
+                        throw new IllegalArgumentException("Literal out of range at byte " + (start + digitsStart));
+                    }
+                    if (literalsOnLine == 2) {
+                        throw new IllegalArgumentException("Expected two literals on the line containing byte "
+                                + (start + digitsStart));
+                    }
+                    line[literalsOnLine++] = negative ? (int) -value : (int) value;
+                }
+            }
+        }
+
+        private static boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+
+        private void addClause(int first, int second) {
+            if (2 * numClauses + 1 >= clauseLiterals.length) {
+                clauseLiterals = Arrays.copyOf(clauseLiterals, clauseLiterals.length + clauseLiterals.length / 2 + 2);
+            }
+            clauseLiterals[2 * numClauses] = first;
+            clauseLiterals[2 * numClauses + 1] = second;
+            numClauses++;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package main;
+
+import java.io.IOException;
+
+/**
+ * A sequence of clauses that can be read more than once, such as a file that is reopened for every pass.
+ * Builders that need a counting pass before a filling pass read it twice instead of keeping the clauses.
+ */
+@FunctionalInterface
+public interface ClauseSource {
+
+    /**
+     * Reads every clause, in the same order on every call
+     * @param consumer receives the clauses
+     * @throws IOException if the clauses cannot be read
+     */
+    void forEachClause(ClauseConsumer consumer) throws IOException;
+}
@@ -0,0 +1,169 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * The condensation of an implication graph: one node per strongly connected component and one edge for each
+ * pair of components joined by at least one implication, stored in CSR form without duplicates or self-loops.
+ * Components keep the ids of the {@link SCCResult} they were built from, so every edge goes from a higher id
+ * to a lower one and decreasing id is a topological order. By skew symmetry the negations of a component's
+ * literals form a single component, recorded for each component.
+ */
+public class Condensation {
+
+    private final int componentCount;
+    private final int[] componentOf;
+    /**
+     * The successors of component c are targets[offsets[c]] up to targets[offsets[c + 1]]
+     */
+    private final int[] offsets;
+    private final int[] targets;
+    /**
+     * The vertices of component c are members[memberOffsets[c]] up to members[memberOffsets[c + 1]]
+     */
+    private final int[] memberOffsets;
+    private final int[] members;
+    /**
+     * The component holding the negations of the literals of each component
+     */
+    private final int[] negatedComponent;
+
+    private Condensation(int componentCount, int[] componentOf, int[] offsets, int[] targets,
+                         int[] memberOffsets, int[] members, int[] negatedComponent) {
+        this.componentCount = componentCount;
+        this.componentOf = componentOf;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        this.negatedComponent = negatedComponent;
+    }
+
+    /**
+     * Builds the condensation of an implication graph
+     * @param graph the implication graph
+     * @param components its components, with every vertex labelled
+     * @return the condensation
+     * @throws IllegalArgumentException if the search behind the components stopped before labelling every vertex
+     */
+    public static Condensation build(ImplicationGraph graph, SCCResult components) {
+        int numVertices = graph.getNumVertices();
+        int componentCount = components.getComponentCount();
+        int[] componentOf = components.getComponentOf();
+        int[] graphOffsets = graph.getOffsets();
+        int[] graphTargets = graph.getTargets();
+
+        /* Group the vertices by component */
+        int[] memberOffsets = new int[componentCount + 1];
+        for (int v = 0; v < numVertices; v++) {
+            if (componentOf[v] < 0) {
+                throw new IllegalArgumentException("Vertex " + v + " has no component");
+            }
+            memberOffsets[componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] members = new int[numVertices];
+        int[] next = Arrays.copyOf(memberOffsets, componentCount);
+        for (int v = 0; v < numVertices; v++) {
+            members[next[componentOf[v]]++] = v;
+        }
+
+        /* Collect each component's distinct successors, marking those already seen by the component */
+        int[] offsets = new int[componentCount + 1];
+        int[] targets = new int[Math.min(graph.getNumEdges(), Math.max(16, componentCount))];
+        int numEdges = 0;
+        int[] seenBy = new int[componentCount];
+        Arrays.fill(seenBy, -1);
+        int[] negatedComponent = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            seenBy[c] = c;
+            negatedComponent[c] = componentOf[ImplicationGraph.negate(members[memberOffsets[c]])];
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int v = members[m];
+                for (int e = graphOffsets[v]; e < graphOffsets[v + 1]; e++) {
+                    int d = componentOf[graphTargets[e]];
+                    if (seenBy[d] != c) {
+                        seenBy[d] = c;
+                        if (numEdges == targets.length) {
+                            targets = Arrays.copyOf(targets, Math.min(graph.getNumEdges(), 2 * targets.length));
+                        }
+                        targets[numEdges++] = d;
+                    }
+                }
+            }
+            offsets[c + 1] = numEdges;
+        }
+        return new Condensation(componentCount, componentOf, offsets, Arrays.copyOf(targets, numEdges),
+                memberOffsets, members, negatedComponent);
+    }
+
+    /**
+     * Computes the components of an implication graph with Tarjan's algorithm and builds their condensation
+     * @param graph the implication graph
+     * @return the condensation
+     */
+    public static Condensation build(ImplicationGraph graph) {
+        return build(graph, TarjanSCC.compute(graph, false));
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param vertex a vertex of the implication graph
+     * @return the id of its component
+     */
+    public int getComponent(int vertex) {
+        return componentOf[vertex];
+    }
+
+    /**
+     * @return the component of each vertex of the implication graph
+     */
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    /**
+     * @param component a component id
+     * @return the component holding the negations of its literals
+     */
+    public int getNegatedComponent(int component) {
+        return negatedComponent[component];
+    }
+
+    /**
+     * @return true if no component is its own negation
+     */
+    public boolean isSatisfiable() {
+        for (int c = 0; c < componentCount; c++) {
+            if (negatedComponent[c] == c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumEdges() {
+        return offsets[componentCount];
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public int[] getMemberOffsets() {
+        return memberOffsets;
+    }
+
+    public int[] getMembers() {
+        return members;
+    }
+}
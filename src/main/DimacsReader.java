@@ -0,0 +1,368 @@
+package main;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams 2-CNF instances in the DIMACS CNF format: comment lines starting with 'c', a "p cnf variables clauses"
+ * header, then clauses as literals terminated by 0, possibly spanning lines. A line starting with '%' ends the
+ * clauses, as in the SATLIB files. A clause of one literal l is read as (l OR l), and a clause of more than
+ * two literals is rejected.
+ * Compressed input is recognised by its magic number and decompressed on the fly: gzip through the JDK,
+ * other formats through a {@link Codec} registered with {@link #registerCodec(Codec)}. Clauses are handed to
+ * a {@link ClauseConsumer} as they are parsed, so reading needs only a fixed-size buffer.
+ */
+public class DimacsReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Decompresses one input format
+     */
+    public interface Codec {
+
+        /**
+         * @return the bytes every stream of this format starts with
+         */
+        byte[] magic();
+
+        /**
+         * @param in the compressed stream, positioned at its magic number
+         * @return the decompressed stream
+         * @throws IOException if the stream cannot be opened
+         */
+        InputStream decompress(InputStream in) throws IOException;
+    }
+
+    public static final Codec GZIP = new Codec() {
+        @Override
+        public byte[] magic() {
+            return new byte[]{0x1f, (byte) 0x8b};
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    };
+
+    /**
+     * The magic number of zstd frames, recognised so that a missing codec gives a clear error
+     */
+    private static final byte[] ZSTD_MAGIC = {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd};
+    /**
+     * The longest magic number checked
+     */
+    private static final int MAX_MAGIC_LENGTH = 8;
+
+    private static final List<Codec> CODECS = new CopyOnWriteArrayList<>(List.of(GZIP));
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private int numVariables = -1;
+    private int numClauses = -1;
+
+    /**
+     * @param in the uncompressed DIMACS text
+     */
+    public DimacsReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Adds a decompressor, for example one wrapping a zstd library's input stream. Codecs registered later
+     * are tried first.
+     * @param codec the decompressor
+     */
+    public static void registerCodec(Codec codec) {
+        CODECS.add(0, codec);
+    }
+
+    /**
+     * Opens a file, decompressing it if it starts with the magic number of a registered codec
+     * @param file the file
+     * @return the uncompressed contents
+     * @throws IOException if the file cannot be read, or is zstd-compressed with no zstd codec registered
+     */
+    public static InputStream open(File file) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(new FileInputStream(file), MAX_MAGIC_LENGTH);
+        try {
+            byte[] head = new byte[MAX_MAGIC_LENGTH];
+            int read = in.readNBytes(head, 0, head.length);
+            in.unread(head, 0, read);
+            byte[] start = Arrays.copyOf(head, read);
+            for (Codec codec : CODECS) {
+                if (startsWith(start, codec.magic())) {
+                    return codec.decompress(in);
+                }
+            }
+            if (startsWith(start, ZSTD_MAGIC)) {
+                throw new IOException("No codec registered for zstd-compressed input: " + file);
+            }
+            return in;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file holds a DIMACS instance: either it is compressed with a known codec, or its first
+     * non-blank byte starts a comment or the header
+     * @param file the file in question
+     * @return true if the file should be read with this class
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isDimacs(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] start = in.readNBytes(MAX_MAGIC_LENGTH);
+            if (startsWith(start, ZSTD_MAGIC)) {
+                return true;
+            }
+            for (Codec codec : CODECS) {
+                if (startsWith(start, codec.magic())) {
+                    return true;
+                }
+            }
+            int i = 0;
+            int b;
+            do {
+                b = i < start.length ? start[i++] : in.read();
+            } while (b == ' ' || b == '\t' || b == '\r' || b == '\n');
+            return b == 'c' || b == 'p';
+        }
+    }
+
+    /**
+     * Reads a DIMACS file into an instance, for the solvers that need the clause list
+     * @param file the file, possibly compressed
+     * @return the instance
+     * @throws IOException if the file cannot be read
+     */
+    public static TwoSATInstance load(File file) throws IOException {
+        try (InputStream in = open(file)) {
+            DimacsReader reader = new DimacsReader(in);
+            reader.readHeader();
+            int[][] clauseLiterals = {new int[2 * Math.max(16, Math.min(reader.numClauses, 1 << 24))]};
+            int[] numClauses = new int[1];
+            reader.readClauses((first, second) -> {
+                if (2 * numClauses[0] == clauseLiterals[0].length) {
+                    clauseLiterals[0] = Arrays.copyOf(clauseLiterals[0], 2 * clauseLiterals[0].length);
+                }
+                clauseLiterals[0][2 * numClauses[0]] = first;
+                clauseLiterals[0][2 * numClauses[0] + 1] = second;
+                numClauses[0]++;
+            });
+            return new TwoSATInstance(reader.numVariables, clauseLiterals[0], numClauses[0]);
+        }
+    }
+
+    /**
+     * Builds the implication graph of a DIMACS file straight from the stream. The file is read, and
+     * decompressed, twice; no clause list or decompressed copy is kept.
+     * @param file the file, possibly compressed
+     * @return the implication graph
+     * @throws IOException if the file cannot be read
+     */
+    public static ImplicationGraph buildGraph(File file) throws IOException {
+        int numVariables;
+        try (InputStream in = open(file)) {
+            DimacsReader reader = new DimacsReader(in);
+            reader.readHeader();
+            numVariables = reader.numVariables;
+        }
+        return ImplicationGraph.build(numVariables, consumer -> {
+            try (InputStream in = open(file)) {
+                DimacsReader reader = new DimacsReader(in);
+                reader.readHeader();
+                if (reader.numVariables != numVariables) {
+                    throw new IOException("File changed between passes: " + file);
+                }
+                reader.readClauses(consumer);
+            }
+        });
+    }
+
+    /**
+     * Reads the comments and the "p cnf" header
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the header is missing or malformed
+     */
+    public void readHeader() throws IOException {
+        int b;
+        while ((b = skipBlank()) == 'c') {
+            skipLine();
+        }
+        if (b != 'p') {
+            throw new IllegalArgumentException("Expected the \"p cnf\" header on line " + lineNumber);
+        }
+        position++;
+        String format = readWord();
+        if (!format.equals("cnf")) {
+            throw new IllegalArgumentException("Expected \"p cnf\" but found \"p " + format + "\" on line "
+                    + lineNumber);
+        }
+        long variables = readInt();
+        long clauses = readInt();
+        if (variables < 0 || clauses < 0) {
+            throw new IllegalArgumentException("Negative count in the header on line " + lineNumber);
+        }
+        numVariables = (int) variables;
+        numClauses = (int) clauses;
+        skipLine();
+    }
+
+    /**
+     * Reads the clauses after the header, handing each to the consumer as soon as its terminating 0 is read
+     * @param consumer receives the clauses
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if a clause is empty or has more than two literals, or a literal is
+     * out of range
+     */
+    public void readClauses(ClauseConsumer consumer) throws IOException {
+        if (numVariables < 0) {
+            throw new IllegalStateException("The header has not been read");
+        }
+        int first = 0;
+        int second = 0;
+        int literals = 0;
+        int b;
+        while ((b = skipBlank()) != -1) {
+            if (literals == 0 && (b == 'c' || b == '%')) {
+                if (b == '%') {
+                    break;
+                }
+                skipLine();
+                continue;
+            }
+            long literal = readInt();
+            if (literal == 0) {
+                if (literals == 0) {
+                    throw new IllegalArgumentException("Empty clause on line " + lineNumber);
+                }
+                consumer.accept(first, literals == 1 ? first : second);
+                literals = 0;
+            } else if (Math.abs(literal) > numVariables) {
+                throw new IllegalArgumentException("Literal " + literal + " out of range on line " + lineNumber);
+            } else if (literals == 2) {
+                throw new IllegalArgumentException("Clause with more than two literals on line " + lineNumber);
+            } else if (literals++ == 0) {
+                first = (int) literal;
+            } else {
+                second = (int) literal;
+            }
+        }
+        if (literals != 0) {
+            throw new IllegalArgumentException("Clause not terminated by 0 at the end of the input");
+        }
+    }
+
+    /**
+     * @return the number of variables from the header
+     */
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    /**
+     * @return the number of clauses announced by the header
+     */
+    public int getNumClauses() {
+        return numClauses;
+    }
+
+    /**
+     * Skips whitespace, counting lines
+     * @return the next non-blank byte, left unread, or -1 at the end of the input
+     */
+    private int skipBlank() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            byte b = buffer[position];
+            if (b == '\n') {
+                lineNumber++;
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                return b;
+            }
+            position++;
+        }
+    }
+
+    private void skipLine() throws IOException {
+        while (position < limit || fill()) {
+            if (buffer[position++] == '\n') {
+                lineNumber++;
+                return;
+            }
+        }
+    }
+
+    private String readWord() throws IOException {
+        StringBuilder word = new StringBuilder();
+        int b = skipBlank();
+        while (b != -1 && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            word.append((char) b);
+            position++;
+            b = position < limit || fill() ? buffer[position] : -1;
+        }
+        return word.toString();
+    }
+
+    /**
+     * Parses a signed decimal integer directly from the buffer
+     */
+    private long readInt() throws IOException {
+        int b = skipBlank();
+        boolean negative = b == '-';
+        if (negative) {
+            position++;
+            b = position < limit || fill() ? buffer[position] : -1;
+        }
+        long value = 0;
+        int digits = 0;
+        while (b >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Number out of range on line " + lineNumber);
+            }
+            digits++;
+            position++;
+            b = position < limit || fill() ? buffer[position] : -1;
+        }
+        if (digits == 0 || (b != -1 && b != ' ' && b != '\t' && b != '\r' && b != '\n')) {
+            throw new NumberFormatException("Malformed number on line " + lineNumber);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Refills the buffer
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length);
+    }
+}
@@ -0,0 +1,124 @@
+package main;
+
+import java.util.BitSet;
+
+/**
+ * Merges provably equivalent literals before a local search. Literals in one strongly connected component of
+ * the implication graph imply each other, so they take the same value in every model. One Tarjan pass labels
+ * the components; each component and its mirror component, which holds the negations of its members, become
+ * one variable of a quotient instance, and every clause is rewritten over those variables. Clauses that
+ * become tautologies are dropped. The search then runs over one variable per pair of components instead of
+ * one per original variable, and its assignment is expanded back through the component labels.
+ */
+public class EquivalenceReduction {
+
+    private final boolean satisfiable;
+    private final TwoSATInstance quotient;
+    /**
+     * The quotient literal of each original vertex, in the signed convention of the data files
+     */
+    private final int[] quotientLiteral;
+    private final int numOriginalVariables;
+
+    private EquivalenceReduction(boolean satisfiable, TwoSATInstance quotient, int[] quotientLiteral,
+                                 int numOriginalVariables) {
+        this.satisfiable = satisfiable;
+        this.quotient = quotient;
+        this.quotientLiteral = quotientLiteral;
+        this.numOriginalVariables = numOriginalVariables;
+    }
+
+    /**
+     * Computes the components of an instance's implication graph and rewrites the instance over them
+     * @param instance the instance
+     * @return the reduction, unsatisfiable if a literal shares its component with its negation
+     */
+    public static EquivalenceReduction reduce(TwoSATInstance instance) {
+        int numVariables = instance.getNumVariables();
+        SCCResult components = TarjanSCC.compute(ImplicationGraph.build(instance));
+        if (!components.isSatisfiable()) {
+            return new EquivalenceReduction(false, null, null, numVariables);
+        }
+        int[] componentOf = components.getComponentOf();
+
+        /* Number the component pairs in the order of their first variable, the lower id taking the positive literal */
+        int[] componentLiteral = new int[components.getComponentCount()];
+        int numQuotientVariables = 0;
+        int numVertices = 2 * numVariables;
+        for (int v = 0; v < numVertices; v += 2) {
+            int component = componentOf[v];
+            if (componentLiteral[component] == 0) {
+                int mirror = componentOf[ImplicationGraph.negate(v)];
+                numQuotientVariables++;
+                componentLiteral[Math.min(component, mirror)] = numQuotientVariables;
+                componentLiteral[Math.max(component, mirror)] = -numQuotientVariables;
+            }
+        }
+        int[] quotientLiteral = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            quotientLiteral[v] = componentLiteral[componentOf[v]];
+        }
+
+        int numClauses = instance.getNumClauses();
+        int[] clauseLiterals = new int[2 * numClauses];
+        int numQuotientClauses = 0;
+        for (int i = 0; i < numClauses; i++) {
+            int first = quotientLiteral[ImplicationGraph.vertexOf(instance.getFirstLiteral(i))];
+            int second = quotientLiteral[ImplicationGraph.vertexOf(instance.getSecondLiteral(i))];
+            if (first == -second) {
+                continue;
+            }
+            clauseLiterals[2 * numQuotientClauses] = first;
+            clauseLiterals[2 * numQuotientClauses + 1] = second;
+            numQuotientClauses++;
+        }
+        TwoSATInstance quotient = new TwoSATInstance(numQuotientVariables, clauseLiterals, numQuotientClauses);
+        return new EquivalenceReduction(true, quotient, quotientLiteral, numVariables);
+    }
+
+    /**
+     * @return false if a literal is equivalent to its own negation, true if otherwise
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    /**
+     * @return the instance over one variable per pair of mirror components, or null if unsatisfiable
+     */
+    public TwoSATInstance getQuotient() {
+        return quotient;
+    }
+
+    /**
+     * @param literal a literal of the original instance
+     * @return the literal of the quotient instance it was merged into
+     */
+    public int getQuotientLiteral(int literal) {
+        return quotientLiteral[ImplicationGraph.vertexOf(literal)];
+    }
+
+    /**
+     * Expands an assignment of the quotient instance into one of the original instance: every variable takes
+     * the value of the quotient literal it was merged into
+     * @param quotientAssignment bit v set if quotient variable v is true
+     * @return bit v set if original variable v is true
+     */
+    public BitSet expand(BitSet quotientAssignment) {
+        BitSet assignment = new BitSet(numOriginalVariables + 1);
+        for (int v = 0; v < numOriginalVariables; v++) {
+            int literal = quotientLiteral[2 * v];
+            if (quotientAssignment.get(Math.abs(literal)) == literal > 0) {
+                assignment.set(v + 1);
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * @return the number of original variables removed by merging
+     */
+    public int getNumMergedVariables() {
+        return satisfiable ? numOriginalVariables - quotient.getNumVariables() : 0;
+    }
+}
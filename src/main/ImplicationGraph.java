@@ -0,0 +1,260 @@
+package main;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The implication graph of a 2-SAT instance stored in compressed sparse row (CSR) form.
+ * Literals are numbered densely as vertices: variable v (1-based) becomes vertex 2 * (v - 1) and its
+ * negation becomes vertex 2 * (v - 1) + 1, so negating a vertex is a matter of flipping its lowest bit.
+ * Every clause (a OR b) contributes the edges NOT a -> b and NOT b -> a. Forward and reverse adjacency
+ * are built together so that no separate reversal pass is needed.
+ */
+public class ImplicationGraph {
+
+    /**
+     * The number of variables in the 2-SAT instance
+     */
+    private final int numVariables;
+    /**
+     * The number of vertices, always twice the number of variables
+     */
+    private final int numVertices;
+    /**
+     * The out-edges of vertex v are targets[offsets[v]] up to (excluding) targets[offsets[v + 1]]
+     */
+    private final int[] offsets;
+    private final int[] targets;
+    /**
+     * The in-edges of vertex v are reverseTargets[reverseOffsets[v]] up to reverseTargets[reverseOffsets[v + 1]]
+     */
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+
+    private ImplicationGraph(int numVariables, int[] offsets, int[] targets,
+                             int[] reverseOffsets, int[] reverseTargets) {
+        this.numVariables = numVariables;
+        this.numVertices = 2 * numVariables;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.reverseOffsets = reverseOffsets;
+        this.reverseTargets = reverseTargets;
+    }
+
+    /**
+     * Converts a literal as it appears in the data files (e.g. 3 or -3) into its vertex number
+     * @param literal a non-zero literal
+     * @return the vertex representing the literal
+     */
+    public static int vertexOf(int literal) {
+        return literal > 0 ? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+    }
+
+    /**
+     * Converts a vertex number back into its literal
+     * @param vertex a vertex of the implication graph
+     * @return the literal, positive or negative, represented by the vertex
+     */
+    public static int literalOf(int vertex) {
+        int variable = (vertex >> 1) + 1;
+        return (vertex & 1) == 0 ? variable : -variable;
+    }
+
+    /**
+     * Gets the vertex of the negated literal
+     * @param vertex a vertex of the implication graph
+     * @return the vertex representing the negation
+     */
+    public static int negate(int vertex) {
+        return vertex ^ 1;
+    }
+
+    /**
+     * Builds the implication graph of a list of clauses
+     * @param numVariables the number of variables, literals must lie in [-numVariables, numVariables]
+     * @param clauseLiterals the clauses packed as pairs, clause i being
+     *                       (clauseLiterals[2 * i] OR clauseLiterals[2 * i + 1])
+     * @param numClauses the number of clauses to read from clauseLiterals
+     * @return the implication graph
+     */
+    public static ImplicationGraph build(int numVariables, int[] clauseLiterals, int numClauses) {
+        return build(new TwoSATInstance(numVariables, clauseLiterals, numClauses));
+    }
+
+    /**
+     * Builds the implication graph of a 2-SAT instance. If the instance carries precomputed CSR offsets
+     * they are copied in bulk and the degree counting pass over the clauses is skipped.
+     * @param instance the instance
+     * @return the implication graph
+     */
+    public static ImplicationGraph build(TwoSATInstance instance) {
+        int numVariables = instance.getNumVariables();
+        int numClauses = instance.getNumClauses();
+        IntBuffer clauseLiterals = instance.getClauseLiterals();
+        int numVertices = 2 * numVariables;
+        int[] offsets = new int[numVertices + 1];
+        int[] reverseOffsets = new int[numVertices + 1];
+
+        if (instance.hasOffsets()) {
+            instance.getOffsets().get(offsets);
+            instance.getReverseOffsets().get(reverseOffsets);
+        } else {
+            countOffsets(instance, offsets, reverseOffsets);
+        }
+
+        int numEdges = 2 * numClauses;
+        int[] targets = new int[numEdges];
+        int[] reverseTargets = new int[numEdges];
+        /* Fill cursors, one per vertex, starting at each vertex's offset */
+        int[] next = new int[numVertices];
+        int[] reverseNext = new int[numVertices];
+        System.arraycopy(offsets, 0, next, 0, numVertices);
+        System.arraycopy(reverseOffsets, 0, reverseNext, 0, numVertices);
+
+        for (int i = 0; i < numClauses; i++) {
+            int first = vertexOf(clauseLiterals.get(2 * i));
+            int second = vertexOf(clauseLiterals.get(2 * i + 1));
+            /* NOT first -> second */
+            targets[next[negate(first)]++] = second;
+            reverseTargets[reverseNext[second]++] = negate(first);
+            /* NOT second -> first */
+            targets[next[negate(second)]++] = first;
+            reverseTargets[reverseNext[first]++] = negate(second);
+        }
+        return new ImplicationGraph(numVariables, offsets, targets, reverseOffsets, reverseTargets);
+    }
+
+    /**
+     * Builds the implication graph of clauses that are streamed rather than held in memory. The source is
+     * read twice, once to count degrees and once to fill the edges, so besides the graph itself nothing
+     * proportional to the number of clauses is allocated.
+     * @param numVariables the number of variables, literals must lie in [-numVariables, numVariables]
+     * @param source the clauses, read twice
+     * @return the implication graph
+     * @throws IOException if the source cannot be read
+     */
+    public static ImplicationGraph build(int numVariables, ClauseSource source) throws IOException {
+        int numVertices = 2 * numVariables;
+        int[] offsets = new int[numVertices + 1];
+        int[] reverseOffsets = new int[numVertices + 1];
+        source.forEachClause((firstLiteral, secondLiteral) -> {
+            int first = vertexOf(firstLiteral);
+            int second = vertexOf(secondLiteral);
+            offsets[negate(first) + 1]++;
+            reverseOffsets[second + 1]++;
+            offsets[negate(second) + 1]++;
+            reverseOffsets[first + 1]++;
+        });
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        int numEdges = offsets[numVertices];
+        int[] targets = new int[numEdges];
+        int[] reverseTargets = new int[numEdges];
+        int[] next = new int[numVertices];
+        int[] reverseNext = new int[numVertices];
+        System.arraycopy(offsets, 0, next, 0, numVertices);
+        System.arraycopy(reverseOffsets, 0, reverseNext, 0, numVertices);
+        int[] filled = new int[1];
+        source.forEachClause((firstLiteral, secondLiteral) -> {
+            if (filled[0] == numEdges) {
+                throw new IllegalStateException("Clause source returned more clauses on its second pass");
+            }
+            int first = vertexOf(firstLiteral);
+            int second = vertexOf(secondLiteral);
+            targets[next[negate(first)]++] = second;
+            reverseTargets[reverseNext[second]++] = negate(first);
+            targets[next[negate(second)]++] = first;
+            reverseTargets[reverseNext[first]++] = negate(second);
+            filled[0] += 2;
+        });
+        if (filled[0] != numEdges) {
+            throw new IllegalStateException("Clause source returned fewer clauses on its second pass");
+        }
+        return new ImplicationGraph(numVariables, offsets, targets, reverseOffsets, reverseTargets);
+    }
+
+    /**
+     * Computes the CSR offsets of an instance's implication graph by counting degrees
+     * @param instance the instance
+     * @param offsets receives the out-edge offsets, must hold 2 * numVariables + 1 zeroed entries
+     * @param reverseOffsets receives the in-edge offsets, same size as offsets
+     */
+    static void countOffsets(TwoSATInstance instance, int[] offsets, int[] reverseOffsets) {
+        IntBuffer clauseLiterals = instance.getClauseLiterals();
+        int numVertices = 2 * instance.getNumVariables();
+        /* Count out-degrees and in-degrees, shifted by one so the prefix sum yields the start offsets */
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            int first = vertexOf(clauseLiterals.get(2 * i));
+            int second = vertexOf(clauseLiterals.get(2 * i + 1));
+            offsets[negate(first) + 1]++;
+            reverseOffsets[second + 1]++;
+            offsets[negate(second) + 1]++;
+            reverseOffsets[first + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+    }
+
+    /**
+     * Converts the graph into the adjacency list representation used by the Map-based API of {@link SCCTwoSAT}.
+     * Only literals with at least one outgoing edge become keys.
+     * @return the implication graph as an adjacency list keyed by literal
+     */
+    public Map<Integer, Set<Integer>> toAdjacencyMap() {
+        Map<Integer, Set<Integer>> graph = new HashMap<>();
+        for (int v = 0; v < numVertices; v++) {
+            if (offsets[v] == offsets[v + 1]) {
+                continue;
+            }
+            Set<Integer> neighbours = new HashSet<>();
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                neighbours.add(literalOf(targets[e]));
+            }
+            graph.put(literalOf(v), neighbours);
+        }
+        return graph;
+    }
+
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return offsets[numVertices];
+    }
+
+    /**
+     * The out-edge offsets, indexed by vertex, with one extra trailing entry
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * The in-edge offsets, indexed by vertex, with one extra trailing entry
+     */
+    public int[] getReverseOffsets() {
+        return reverseOffsets;
+    }
+
+    public int[] getReverseTargets() {
+        return reverseTargets;
+    }
+}
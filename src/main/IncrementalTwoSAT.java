@@ -0,0 +1,365 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A 2-SAT solver that takes clauses one at a time and keeps its verdict current after every clause.
+ * The implication graph is maintained together with its strongly connected components and a topological
+ * order of their condensation, using the dynamic topological sort of Pearce and Kelly extended to merge
+ * components when an inserted edge closes a cycle. Inserting an edge that agrees with the current order
+ * costs O(1); otherwise only the components whose order lies between the edge's endpoints are searched.
+ * Once the instance becomes unsatisfiable it stays so, and further clauses are ignored.
+ */
+public class IncrementalTwoSAT {
+
+    /**
+     * The number of variables seen so far
+     */
+    private int numVariables;
+    /**
+     * The number of vertices with allocated storage
+     */
+    private int capacity;
+
+    /**
+     * Out-edges and in-edges of each vertex, as growable arrays
+     */
+    private int[][] outEdges;
+    private int[] outDegree;
+    private int[][] inEdges;
+    private int[] inDegree;
+
+    /**
+     * Union-find parent of each vertex, vertices in the same component share a root
+     */
+    private int[] parent;
+    /**
+     * Component size, valid for roots
+     */
+    private int[] componentSize;
+    /**
+     * The members of a component form a circular list through this array
+     */
+    private int[] nextMember;
+    /**
+     * Topological position of a component, valid for roots. Every edge between two components goes from
+     * the lower position to the higher one.
+     */
+    private int[] order;
+    private int nextOrder;
+
+    /**
+     * Search marks for the forward and backward searches, compared against the current epoch
+     */
+    private int[] forwardMark;
+    private int[] backwardMark;
+    private int epoch;
+
+    /**
+     * Scratch lists for the searches
+     */
+    private int[] stack = new int[16];
+    private int[] forwardComponents = new int[16];
+    private int forwardCount;
+    private int[] backwardComponents = new int[16];
+    private int backwardCount;
+
+    private boolean satisfiable = true;
+
+    public IncrementalTwoSAT() {
+        this(16);
+    }
+
+    /**
+     * @param expectedVariables the number of variables to allocate storage for up front
+     */
+    public IncrementalTwoSAT(int expectedVariables) {
+        allocate(2 * Math.max(expectedVariables, 1));
+    }
+
+    /**
+     * Adds the clause (firstLiteral OR secondLiteral), introducing any new variables
+     * @param firstLiteral a non-zero literal
+     * @param secondLiteral a non-zero literal
+     * @return true if the instance is still satisfiable, false if otherwise
+     */
+    public boolean addClause(int firstLiteral, int secondLiteral) {
+        if (firstLiteral == 0 || secondLiteral == 0) {
+            throw new IllegalArgumentException("Literals must be non-zero");
+        }
+        if (!satisfiable) {
+            return false;
+        }
+        ensureVariables(Math.max(Math.abs(firstLiteral), Math.abs(secondLiteral)));
+        int first = ImplicationGraph.vertexOf(firstLiteral);
+        int second = ImplicationGraph.vertexOf(secondLiteral);
+        boolean merged = insertEdge(ImplicationGraph.negate(first), second);
+        merged |= insertEdge(ImplicationGraph.negate(second), first);
+        if (merged) {
+            /*
+             * Every new component contains an endpoint of a new edge. The graph is skew-symmetric again now
+             * that both edges are in, so a component holding a literal and its negation holds the negation
+             * of every member, and checking the endpoints is enough.
+             */
+            satisfiable = find(first) != find(ImplicationGraph.negate(first))
+                    && find(second) != find(ImplicationGraph.negate(second));
+        }
+        return satisfiable;
+    }
+
+    /**
+     * Adds every clause of an instance
+     * @param instance the instance
+     * @return true if the instance is still satisfiable, false if otherwise
+     */
+    public boolean addClauses(TwoSATInstance instance) {
+        ensureVariables(instance.getNumVariables());
+        for (int i = 0; i < instance.getNumClauses() && satisfiable; i++) {
+            addClause(instance.getFirstLiteral(i), instance.getSecondLiteral(i));
+        }
+        return satisfiable;
+    }
+
+    /**
+     * @return true if the clauses added so far are satisfiable, false if otherwise
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    /**
+     * Checks whether two literals are currently known to be equivalent, i.e. share a component
+     */
+    public boolean areEquivalent(int firstLiteral, int secondLiteral) {
+        int first = ImplicationGraph.vertexOf(firstLiteral);
+        int second = ImplicationGraph.vertexOf(secondLiteral);
+        if (first >= 2 * numVariables || second >= 2 * numVariables) {
+            return firstLiteral == secondLiteral;
+        }
+        return find(first) == find(second);
+    }
+
+    /**
+     * Inserts an edge and restores the component structure and topological order
+     * @return true if components were merged
+     */
+    private boolean insertEdge(int from, int to) {
+        outEdges[from] = append(outEdges[from], outDegree[from]++, to);
+        inEdges[to] = append(inEdges[to], inDegree[to]++, from);
+
+        int source = find(from);
+        int target = find(to);
+        if (source == target || order[source] < order[target]) {
+            return false;
+        }
+        int lowerBound = order[target];
+        int upperBound = order[source];
+        epoch++;
+
+        boolean cycle = searchForward(target, source, upperBound);
+        searchBackward(source, lowerBound);
+        if (!cycle) {
+            reorder(-1);
+            return false;
+        }
+
+        /* The components reachable from target that also reach source form the new component */
+        int merged = -1;
+        for (int i = 0; i < backwardCount; i++) {
+            int component = backwardComponents[i];
+            if (forwardMark[component] == epoch) {
+                merged = merged == -1 ? component : union(merged, component);
+            }
+        }
+        reorder(merged);
+        return true;
+    }
+
+    /**
+     * Collects the components reachable from start whose position is at most upperBound
+     * @return true if the component goal was reached
+     */
+    private boolean searchForward(int start, int goal, int upperBound) {
+        boolean reached = false;
+        forwardCount = 0;
+        int stackSize = 0;
+        forwardMark[start] = epoch;
+        stack = grow(stack, stackSize);
+        stack[stackSize++] = start;
+        while (stackSize > 0) {
+            int component = stack[--stackSize];
+            forwardComponents = grow(forwardComponents, forwardCount);
+            forwardComponents[forwardCount++] = component;
+            int member = component;
+            do {
+                for (int e = 0; e < outDegree[member]; e++) {
+                    int next = find(outEdges[member][e]);
+                    if (forwardMark[next] != epoch && order[next] <= upperBound) {
+                        forwardMark[next] = epoch;
+                        reached |= next == goal;
+                        stack = grow(stack, stackSize);
+                        stack[stackSize++] = next;
+                    }
+                }
+                member = nextMember[member];
+            } while (member != component);
+        }
+        return reached;
+    }
+
+    /**
+     * Collects the components that reach start and whose position is at least lowerBound
+     */
+    private void searchBackward(int start, int lowerBound) {
+        backwardCount = 0;
+        int stackSize = 0;
+        backwardMark[start] = epoch;
+        stack[stackSize++] = start;
+        while (stackSize > 0) {
+            int component = stack[--stackSize];
+            backwardComponents = grow(backwardComponents, backwardCount);
+            backwardComponents[backwardCount++] = component;
+            int member = component;
+            do {
+                for (int e = 0; e < inDegree[member]; e++) {
+                    int previous = find(inEdges[member][e]);
+                    if (backwardMark[previous] != epoch && order[previous] >= lowerBound) {
+                        backwardMark[previous] = epoch;
+                        stack = grow(stack, stackSize);
+                        stack[stackSize++] = previous;
+                    }
+                }
+                member = nextMember[member];
+            } while (member != component);
+        }
+    }
+
+    /**
+     * Reassigns the positions held by the searched components: those that reach the inserted edge's source
+     * first, then the merged component if any, then those reachable from the edge's target. Each group keeps
+     * its previous relative order.
+     * @param merged the root of the merged component, or -1 if no cycle was closed
+     */
+    private void reorder(int merged) {
+        int total = forwardCount + backwardCount;
+        int[] slots = new int[total];
+        long[] before = new long[backwardCount];
+        long[] after = new long[forwardCount];
+        int numSlots = 0;
+        int numBefore = 0;
+        int numAfter = 0;
+        for (int i = 0; i < backwardCount; i++) {
+            int component = backwardComponents[i];
+            slots[numSlots++] = order[component];
+            if (forwardMark[component] != epoch) {
+                before[numBefore++] = ((long) order[component] << 32) | component;
+            }
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            int component = forwardComponents[i];
+            if (backwardMark[component] != epoch) {
+                slots[numSlots++] = order[component];
+                after[numAfter++] = ((long) order[component] << 32) | component;
+            }
+        }
+        Arrays.sort(slots, 0, numSlots);
+        Arrays.sort(before, 0, numBefore);
+        Arrays.sort(after, 0, numAfter);
+
+        /*
+         * The earlier group takes the lowest slots and the later group the highest, so no component moves
+         * past an unsearched neighbour. When components were merged some slots in between stay unused.
+         */
+        for (int i = 0; i < numBefore; i++) {
+            order[(int) before[i]] = slots[i];
+        }
+        if (merged != -1) {
+            order[merged] = slots[numBefore];
+        }
+        for (int i = 0; i < numAfter; i++) {
+            order[(int) after[i]] = slots[numSlots - numAfter + i];
+        }
+    }
+
+    /**
+     * Finds the root of a vertex's component, halving the path on the way
+     */
+    private int find(int vertex) {
+        while (parent[vertex] != vertex) {
+            parent[vertex] = parent[parent[vertex]];
+            vertex = parent[vertex];
+        }
+        return vertex;
+    }
+
+    /**
+     * Merges two components by size, splicing their member lists
+     * @return the root of the merged component
+     */
+    private int union(int first, int second) {
+        if (componentSize[first] < componentSize[second]) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        parent[second] = first;
+        componentSize[first] += componentSize[second];
+        int swap = nextMember[first];
+        nextMember[first] = nextMember[second];
+        nextMember[second] = swap;
+        return first;
+    }
+
+    private void ensureVariables(int variables) {
+        if (variables <= numVariables) {
+            return;
+        }
+        if (2 * variables > capacity) {
+            allocate(Math.max(2 * variables, 2 * capacity));
+        }
+        for (int v = 2 * numVariables; v < 2 * variables; v++) {
+            parent[v] = v;
+            componentSize[v] = 1;
+            nextMember[v] = v;
+            order[v] = nextOrder++;
+            outEdges[v] = new int[2];
+            inEdges[v] = new int[2];
+        }
+        numVariables = variables;
+    }
+
+    private void allocate(int newCapacity) {
+        outEdges = outEdges == null ? new int[newCapacity][] : Arrays.copyOf(outEdges, newCapacity);
+        inEdges = inEdges == null ? new int[newCapacity][] : Arrays.copyOf(inEdges, newCapacity);
+        outDegree = resize(outDegree, newCapacity);
+        inDegree = resize(inDegree, newCapacity);
+        parent = resize(parent, newCapacity);
+        componentSize = resize(componentSize, newCapacity);
+        nextMember = resize(nextMember, newCapacity);
+        order = resize(order, newCapacity);
+        forwardMark = resize(forwardMark, newCapacity);
+        backwardMark = resize(backwardMark, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private static int[] resize(int[] array, int size) {
+        return array == null ? new int[size] : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Ensures there is room to write at index
+     */
+    private static int[] grow(int[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, 2 * array.length);
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        array = grow(array, index);
+        array[index] = value;
+        return array;
+    }
+}
@@ -0,0 +1,221 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates seeded 2-SAT instances for tests and benchmarks. The same arguments and seed always give the
+ * same instance.
+ */
+public class InstanceGenerator {
+
+    /**
+     * Uniformly random clauses over distinct variables. Random 2-SAT goes from almost surely satisfiable to
+     * almost surely unsatisfiable around one clause per variable, where instances are hardest to decide.
+     * @param numVariables the number of variables
+     * @param numClauses the number of clauses
+     * @param seed the seed
+     * @return the instance
+     */
+    public static TwoSATInstance random(int numVariables, int numClauses, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] clauseLiterals = new int[2 * numClauses];
+        for (int i = 0; i < numClauses; i++) {
+            int first = 1 + random.nextInt(numVariables);
+            int second = numVariables == 1 ? first : 1 + random.nextInt(numVariables - 1);
+            if (numVariables > 1 && second >= first) {
+                second++;
+            }
+            clauseLiterals[2 * i] = randomSign(first, random);
+            clauseLiterals[2 * i + 1] = randomSign(second, random);
+        }
+        return new TwoSATInstance(numVariables, clauseLiterals, numClauses);
+    }
+
+    /**
+     * Random clauses at the satisfiability threshold, one clause per variable
+     * @param numVariables the number of variables
+     * @param seed the seed
+     * @return the instance
+     */
+    public static TwoSATInstance threshold(int numVariables, long seed) {
+        return random(numVariables, numVariables, seed);
+    }
+
+    /**
+     * A single implication chain through every variable in a random order, with random polarities.
+     * It is satisfiable and its implication graph is two paths of length n, which makes a depth-first
+     * search as deep as possible.
+     * @param numVariables the number of variables
+     * @param seed the seed
+     * @return the instance
+     */
+    public static TwoSATInstance chain(int numVariables, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] order = permutation(numVariables, random);
+        int numClauses = numVariables - 1;
+        int[] clauseLiterals = new int[2 * numClauses];
+        int previous = randomSign(order[0], random);
+        for (int i = 0; i < numClauses; i++) {
+            int next = randomSign(order[i + 1], random);
+            /* previous implies next */
+            clauseLiterals[2 * i] = -previous;
+            clauseLiterals[2 * i + 1] = next;
+            previous = next;
+        }
+        return new TwoSATInstance(numVariables, clauseLiterals, numClauses);
+    }
+
+    /**
+     * Dense clusters of equivalent literals. The variables are split into clusters of the given size; within
+     * a cluster the literals are tied into a cycle of implications and joined by random chords, so each cluster
+     * and its negation are one large SCC each. A few implications then link the clusters in a random acyclic
+     * order. The instance is satisfiable.
+     * @param numVariables the number of variables
+     * @param clusterSize the number of variables per cluster, at least 2
+     * @param chordsPerVariable the number of extra implications inside a cluster per variable
+     * @param seed the seed
+     * @return the instance
+     */
+    public static TwoSATInstance clusters(int numVariables, int clusterSize, int chordsPerVariable, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] order = permutation(numVariables, random);
+        /* Each variable's polarity within its cluster; all literals of a cluster are equivalent */
+        int[] literal = new int[numVariables];
+        for (int i = 0; i < numVariables; i++) {
+            literal[i] = randomSign(order[i], random);
+        }
+        int numClusters = (numVariables + clusterSize - 1) / clusterSize;
+        int numClauses = numVariables * (1 + chordsPerVariable) + numClusters;
+        int[] clauseLiterals = new int[2 * numClauses];
+        int position = 0;
+        for (int start = 0; start < numVariables; start += clusterSize) {
+            int size = Math.min(clusterSize, numVariables - start);
+            for (int i = 0; i < size; i++) {
+                /* literal i implies literal i + 1, closing the cycle */
+                clauseLiterals[position++] = -literal[start + i];
+                clauseLiterals[position++] = literal[start + (i + 1) % size];
+                for (int c = 0; c < chordsPerVariable; c++) {
+                    clauseLiterals[position++] = -literal[start + i];
+                    clauseLiterals[position++] = literal[start + random.nextInt(size)];
+                }
+            }
+            if (start > 0) {
+                /* A random earlier cluster implies this one */
+                int earlier = random.nextInt(start);
+                clauseLiterals[position++] = -literal[earlier];
+                clauseLiterals[position++] = literal[start + random.nextInt(size)];
+            }
+        }
+        return new TwoSATInstance(numVariables, clauseLiterals, position / 2);
+    }
+
+    /**
+     * Random clauses that all agree with a hidden assignment, so the instance is satisfiable
+     * @param numVariables the number of variables
+     * @param numClauses the number of clauses
+     * @param seed the seed
+     * @return the instance
+     */
+    public static TwoSATInstance planted(int numVariables, int numClauses, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean[] hidden = new boolean[numVariables + 1];
+        for (int v = 1; v <= numVariables; v++) {
+            hidden[v] = random.nextBoolean();
+        }
+        int[] clauseLiterals = new int[2 * numClauses];
+        for (int i = 0; i < numClauses; i++) {
+            int first = randomSign(1 + random.nextInt(numVariables), random);
+            int second = randomSign(1 + random.nextInt(numVariables), random);
+            if (hidden[Math.abs(first)] != first > 0 && hidden[Math.abs(second)] != second > 0) {
+                /* Both literals are false under the hidden assignment, so negate one of them */
+                if (random.nextBoolean()) {
+                    first = -first;
+                } else {
+                    second = -second;
+                }
+            }
+            clauseLiterals[2 * i] = first;
+            clauseLiterals[2 * i + 1] = second;
+        }
+        return new TwoSATInstance(numVariables, clauseLiterals, numClauses);
+    }
+
+    /**
+     * Writes an instance in the text format read by {@link ClauseLoader}
+     * @param instance the instance
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeText(TwoSATInstance instance, File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            writer.write(Integer.toString(instance.getNumVariables()));
+            writer.newLine();
+            for (int i = 0; i < instance.getNumClauses(); i++) {
+                writer.write(Integer.toString(instance.getFirstLiteral(i)));
+                writer.write(' ');
+                writer.write(Integer.toString(instance.getSecondLiteral(i)));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int randomSign(int variable, SplittableRandom random) {
+        return random.nextBoolean() ? variable : -variable;
+    }
+
+    /**
+     * @return the variables 1 to n in a random order
+     */
+    private static int[] permutation(int numVariables, SplittableRandom random) {
+        int[] order = new int[numVariables];
+        for (int i = 0; i < numVariables; i++) {
+            order[i] = i + 1;
+        }
+        for (int i = numVariables - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Writes a generated instance to a file
+     * Usage: {@code InstanceGenerator <random|threshold|chain|clusters|planted> <variables> <seed> <file>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: InstanceGenerator <random|threshold|chain|clusters|planted> "
+                    + "<variables> <seed> <file>");
+            System.exit(1);
+        }
+        int numVariables = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        TwoSATInstance instance;
+        switch (args[0]) {
+            case "random":
+                instance = random(numVariables, 2 * numVariables, seed);
+                break;
+            case "threshold":
+                instance = threshold(numVariables, seed);
+                break;
+            case "chain":
+                instance = chain(numVariables, seed);
+                break;
+            case "clusters":
+                instance = clusters(numVariables, 64, 2, seed);
+                break;
+            case "planted":
+                instance = planted(numVariables, 2 * numVariables, seed);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown kind: " + args[0]);
+        }
+        writeText(instance, new File(args[3]));
+    }
+}
@@ -0,0 +1,126 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Loads 2-SAT clauses whose variables are sparse 64-bit ids or string names rather than the numbers 1 to n.
+ * Each line holds one clause of two literals, a literal being a key optionally preceded by '-' for its
+ * negation. Ids are unsigned decimal 64-bit integers; names are any other run of non-whitespace bytes, read
+ * as UTF-8, that does not start with '-'. There is no header line, blank lines are ignored and lines starting
+ * with '#' are comments.
+ * The keys are numbered through a {@link VariableDictionary} as they are parsed, so the instance comes out
+ * over dense variables, ready for either solver, and its assignment is translated back with the dictionary.
+ */
+public class KeyedClauseLoader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Loads a file of keyed clauses
+     * @param file the clause file
+     * @param dictionary numbers the keys; its kind decides whether keys are read as ids or names, and it may
+     *                   already hold keys from an earlier file
+     * @return the instance over the dense variables, with as many variables as the dictionary holds
+     * @throws IOException if the file cannot be read
+     */
+    public static TwoSATInstance load(File file, VariableDictionary dictionary) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return load(in, dictionary);
+        }
+    }
+
+    /**
+     * Loads keyed clauses from a stream, in the format of {@link #load(File, VariableDictionary)}
+     * @param in the stream, read to its end but not closed
+     * @param dictionary numbers the keys
+     * @return the instance over the dense variables
+     * @throws IOException if the stream cannot be read
+     */
+    public static TwoSATInstance load(InputStream in, VariableDictionary dictionary) throws IOException {
+        InputStream input = new BufferedInputStream(in, BUFFER_SIZE);
+        int[] clauseLiterals = new int[1024];
+        int numLiterals = 0;
+        byte[] token = new byte[64];
+        int literalsOnLine = 0;
+        long lineNumber = 1;
+        boolean comment = false;
+
+        int b = input.read();
+        while (true) {
+            if (b == '\n' || b == -1) {
+                if (literalsOnLine == 1) {
+                    throw new IllegalArgumentException("Expected two literals on line " + lineNumber);
+                }
+                if (b == -1) {
+                    break;
+                }
+                literalsOnLine = 0;
+                comment = false;
+                lineNumber++;
+                b = input.read();
+            } else if (comment || b == ' ' || b == '\t' || b == '\r') {
+                b = input.read();
+            } else if (b == '#' && literalsOnLine == 0) {
+                comment = true;
+                b = input.read();
+            } else {
+                if (literalsOnLine == 2) {
+                    throw new IllegalArgumentException("Expected two literals on line " + lineNumber);
+                }
+                boolean negated = b == '-';
+                if (negated) {
+                    b = input.read();
+                }
+                int length = 0;
+                while (b != -1 && !isSeparator((byte) b)) {
+                    if (length == token.length) {
+                        token = Arrays.copyOf(token, 2 * length);
+                    }
+                    token[length++] = (byte) b;
+                    b = input.read();
+                }
+                if (length == 0) {
+                    throw new IllegalArgumentException("Missing key after '-' on line " + lineNumber);
+                }
+                int literal = dictionary.isNamed()
+                        ? dictionary.literalOf(new String(token, 0, length, StandardCharsets.UTF_8), negated)
+                        : dictionary.literalOf(parseUnsignedKey(token, length, lineNumber), negated);
+                if (numLiterals == clauseLiterals.length) {
+                    clauseLiterals = Arrays.copyOf(clauseLiterals, clauseLiterals.length * 2);
+                }
+                clauseLiterals[numLiterals++] = literal;
+                literalsOnLine++;
+            }
+        }
+        return new TwoSATInstance(dictionary.size(), clauseLiterals, numLiterals / 2);
+    }
+
+    /**
+     * Parses an unsigned decimal 64-bit id directly from the bytes
+     */
+    private static long parseUnsignedKey(byte[] token, int length, long lineNumber) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Malformed key on line " + lineNumber);
+            }
+            /* value * 10 + digit overflows 64 unsigned bits iff value exceeds (2^64 - 1 - digit) / 10 */
+            if (Long.compareUnsigned(value, Long.divideUnsigned(-1L - digit, 10)) > 0) {
+                throw new NumberFormatException("Key out of range on line " + lineNumber);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
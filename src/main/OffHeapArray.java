@@ -0,0 +1,137 @@
+package main;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A fixed-length array of ints or longs stored outside the Java heap and indexed by long, so it may hold more
+ * than 2^31 elements. The storage is split into segments of 1 GiB, each a direct buffer or, when a directory is
+ * given, a memory-mapped temporary file whose pages the operating system can write back under memory pressure.
+ * Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the maximum heap size, so arrays much
+ * larger than the heap should be file-backed.
+ * Elements start at zero. An array is not thread-safe.
+ */
+public class OffHeapArray implements AutoCloseable {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final long length;
+    private final int elementShift;
+    private ByteBuffer[] segments;
+    private final Path file;
+
+    private OffHeapArray(long length, int elementShift, Path directory) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length: " + length);
+        }
+        this.length = length;
+        this.elementShift = elementShift;
+        long bytes = length << elementShift;
+        int numSegments = (int) ((bytes + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        segments = new ByteBuffer[numSegments];
+        if (directory == null) {
+            file = null;
+            for (int s = 0; s < numSegments; s++) {
+                segments[s] = ByteBuffer.allocateDirect(segmentSize(bytes, s)).order(ByteOrder.nativeOrder());
+            }
+            return;
+        }
+        try {
+            file = Files.createTempFile(directory, "offheap", ".bin");
+            file.toFile().deleteOnExit();
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(bytes);
+                FileChannel channel = raf.getChannel();
+                for (int s = 0; s < numSegments; s++) {
+                    segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, (long) s << SEGMENT_SHIFT,
+                            segmentSize(bytes, s)).order(ByteOrder.nativeOrder());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int segmentSize(long bytes, int segment) {
+        return (int) Math.min(1L << SEGMENT_SHIFT, bytes - ((long) segment << SEGMENT_SHIFT));
+    }
+
+    /**
+     * Allocates an array of ints
+     * @param length the number of elements
+     * @param directory the directory for the backing file, or null for direct memory
+     * @return the array, filled with zeros
+     */
+    public static OffHeapArray ints(long length, Path directory) {
+        return new OffHeapArray(length, 2, directory);
+    }
+
+    /**
+     * Allocates an array of longs
+     * @param length the number of elements
+     * @param directory the directory for the backing file, or null for direct memory
+     * @return the array, filled with zeros
+     */
+    public static OffHeapArray longs(long length, Path directory) {
+        return new OffHeapArray(length, 3, directory);
+    }
+
+    public int getInt(long index) {
+        long offset = index << 2;
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    public void setInt(long index, int value) {
+        long offset = index << 2;
+        segments[(int) (offset >>> SEGMENT_SHIFT)].putInt((int) (offset & SEGMENT_MASK), value);
+    }
+
+    public long getLong(long index) {
+        long offset = index << 3;
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    public void setLong(long index, long value) {
+        long offset = index << 3;
+        segments[(int) (offset >>> SEGMENT_SHIFT)].putLong((int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Sets every int element to a value
+     * @param value the value
+     */
+    public void fillInts(int value) {
+        for (ByteBuffer segment : segments) {
+            for (int position = 0; position < segment.capacity(); position += 4) {
+                segment.putInt(position, value);
+            }
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Drops the segments and deletes the backing file, if any. The memory itself is released once the
+     * buffers are garbage collected; on Linux a deleted file's pages go away with the mapping.
+     */
+    @Override
+    public void close() {
+        segments = null;
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                /* Left to deleteOnExit */
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package main;
+
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+
+/**
+ * The forward implication graph of a 2-SAT instance in CSR form, stored in {@link OffHeapArray}s so that
+ * neither the graph nor its edge count is bounded by the heap or by 2^31. It follows the vertex numbering of
+ * {@link ImplicationGraph}; unlike it, there is no reverse adjacency, which Tarjan's algorithm does not need.
+ */
+public class OffHeapImplicationGraph implements AutoCloseable {
+
+    private final int numVariables;
+    private final int numVertices;
+    /**
+     * The out-edges of vertex v are targets[offsets[v]] up to (excluding) targets[offsets[v + 1]]
+     */
+    private final OffHeapArray offsets;
+    private final OffHeapArray targets;
+
+    private OffHeapImplicationGraph(int numVariables, OffHeapArray offsets, OffHeapArray targets) {
+        this.numVariables = numVariables;
+        this.numVertices = 2 * numVariables;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the implication graph of a 2-SAT instance. The degree counts are turned into end offsets and
+     * each edge is written just below its source's end, which leaves the start offsets behind, so no separate
+     * fill cursors are needed. With an instance read from the binary format the clauses are themselves mapped,
+     * and the heap holds nothing proportional to the instance.
+     * @param instance the instance
+     * @param directory the directory for the backing files, or null for direct memory
+     * @return the implication graph
+     */
+    public static OffHeapImplicationGraph build(TwoSATInstance instance, Path directory) {
+        int numVariables = instance.getNumVariables();
+        int numVertices = 2 * numVariables;
+        int numClauses = instance.getNumClauses();
+        IntBuffer clauseLiterals = instance.getClauseLiterals();
+        OffHeapArray offsets = OffHeapArray.longs(numVertices + 1L, directory);
+        OffHeapArray targets = OffHeapArray.ints(2L * numClauses, directory);
+
+        for (int i = 0; i < numClauses; i++) {
+            int first = ImplicationGraph.vertexOf(clauseLiterals.get(2 * i));
+            int second = ImplicationGraph.vertexOf(clauseLiterals.get(2 * i + 1));
+            increment(offsets, ImplicationGraph.negate(first));
+            increment(offsets, ImplicationGraph.negate(second));
+        }
+        long end = 0;
+        for (int v = 0; v < numVertices; v++) {
+            end += offsets.getLong(v);
+            offsets.setLong(v, end);
+        }
+        offsets.setLong(numVertices, end);
+        /* Walking the clauses backwards leaves each vertex's edges in the order ImplicationGraph has them */
+        for (int i = numClauses - 1; i >= 0; i--) {
+            int first = ImplicationGraph.vertexOf(clauseLiterals.get(2 * i));
+            int second = ImplicationGraph.vertexOf(clauseLiterals.get(2 * i + 1));
+            /* NOT second -> first and NOT first -> second, the reverse of their forward order */
+            targets.setInt(decrement(offsets, ImplicationGraph.negate(second)), first);
+            targets.setInt(decrement(offsets, ImplicationGraph.negate(first)), second);
+        }
+        return new OffHeapImplicationGraph(numVariables, offsets, targets);
+    }
+
+    private static void increment(OffHeapArray array, int index) {
+        array.setLong(index, array.getLong(index) + 1);
+    }
+
+    private static long decrement(OffHeapArray array, int index) {
+        long value = array.getLong(index) - 1;
+        array.setLong(index, value);
+        return value;
+    }
+
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public long getNumEdges() {
+        return offsets.getLong(numVertices);
+    }
+
+    /**
+     * The out-edge offsets, indexed by vertex, with one extra trailing entry
+     */
+    public OffHeapArray getOffsets() {
+        return offsets;
+    }
+
+    public OffHeapArray getTargets() {
+        return targets;
+    }
+
+    @Override
+    public void close() {
+        offsets.close();
+        targets.close();
+    }
+}
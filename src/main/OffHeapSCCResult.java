@@ -0,0 +1,71 @@
+package main;
+
+import java.util.BitSet;
+
+/**
+ * The strongly connected components of an {@link OffHeapImplicationGraph}, as computed by
+ * {@link OffHeapTarjanSCC}, with the component ids kept off the heap. Ids follow the same reverse topological
+ * order as {@link SCCResult}.
+ */
+public class OffHeapSCCResult implements AutoCloseable {
+
+    /**
+     * Maps each vertex to the id of its component, or -1 if the search stopped before reaching it
+     */
+    private final OffHeapArray componentOf;
+    private final int componentCount;
+    /**
+     * A vertex that shares its component with its own negation, or -1 if there is none
+     */
+    private final int conflictVertex;
+
+    OffHeapSCCResult(OffHeapArray componentOf, int componentCount, int conflictVertex) {
+        this.componentOf = componentOf;
+        this.componentCount = componentCount;
+        this.conflictVertex = conflictVertex;
+    }
+
+    /**
+     * @return true if no literal is in the same component as its negation
+     */
+    public boolean isSatisfiable() {
+        return conflictVertex == -1;
+    }
+
+    /**
+     * Reads a satisfying assignment off the component ids, as {@link SCCResult#toAssignment()} does. The
+     * assignment is the only thing the solve path puts on the heap, one bit per variable.
+     * @return the assignment, where bit v is set if variable v (1-based) is true,
+     *         or null if the instance is unsatisfiable
+     */
+    public BitSet toAssignment() {
+        if (!isSatisfiable()) {
+            return null;
+        }
+        long numVertices = componentOf.length();
+        BitSet assignment = new BitSet((int) (numVertices / 2 + 1));
+        for (int v = 0; v < numVertices; v += 2) {
+            if (componentOf.getInt(v) < componentOf.getInt(ImplicationGraph.negate(v))) {
+                assignment.set((v >> 1) + 1);
+            }
+        }
+        return assignment;
+    }
+
+    public OffHeapArray getComponentOf() {
+        return componentOf;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public int getConflictVertex() {
+        return conflictVertex;
+    }
+
+    @Override
+    public void close() {
+        componentOf.close();
+    }
+}
@@ -0,0 +1,100 @@
+package main;
+
+import java.nio.file.Path;
+
+/**
+ * Tarjan's algorithm over an {@link OffHeapImplicationGraph}. It is the search of {@link TarjanSCC} with every
+ * per-vertex array, including the Tarjan stack and the explicit DFS call stack, held in {@link OffHeapArray}s,
+ * so the heap used does not grow with the instance.
+ */
+public class OffHeapTarjanSCC {
+
+    /**
+     * Computes the SCCs of the implication graph, stopping at the first component that contains a literal
+     * together with its negation
+     * @param graph the implication graph
+     * @param directory the directory for the backing files, or null for direct memory
+     * @return the components found, with the conflicting vertex if the instance is unsatisfiable
+     */
+    public static OffHeapSCCResult compute(OffHeapImplicationGraph graph, Path directory) {
+        int numVertices = graph.getNumVertices();
+        OffHeapArray offsets = graph.getOffsets();
+        OffHeapArray targets = graph.getTargets();
+
+        OffHeapArray componentOf = OffHeapArray.ints(numVertices, directory);
+        try (OffHeapArray index = OffHeapArray.ints(numVertices, directory);
+             OffHeapArray lowLink = OffHeapArray.ints(numVertices, directory);
+             OffHeapArray stack = OffHeapArray.ints(numVertices, directory);
+             OffHeapArray callVertex = OffHeapArray.ints(numVertices, directory);
+             OffHeapArray callEdge = OffHeapArray.longs(numVertices, directory)) {
+            /* DFS discovery index of each vertex, -1 while undiscovered */
+            index.fillInts(-1);
+            /* Component of each vertex, -1 while the vertex is unvisited or still on the Tarjan stack */
+            componentOf.fillInts(-1);
+            int stackSize = 0;
+            int callSize = 0;
+            int nextIndex = 0;
+            int componentCount = 0;
+
+            for (int root = 0; root < numVertices; root++) {
+                if (index.getInt(root) != -1) {
+                    continue;
+                }
+                index.setInt(root, nextIndex);
+                lowLink.setInt(root, nextIndex++);
+                stack.setInt(stackSize++, root);
+                callVertex.setInt(callSize, root);
+                callEdge.setLong(callSize++, offsets.getLong(root));
+
+                while (callSize > 0) {
+                    int v = callVertex.getInt(callSize - 1);
+                    long e = callEdge.getLong(callSize - 1);
+                    if (e < offsets.getLong(v + 1)) {
+                        callEdge.setLong(callSize - 1, e + 1);
+                        int w = targets.getInt(e);
+                        int wIndex = index.getInt(w);
+                        if (wIndex == -1) {
+                            /* Descend into w */
+                            index.setInt(w, nextIndex);
+                            lowLink.setInt(w, nextIndex++);
+                            stack.setInt(stackSize++, w);
+                            callVertex.setInt(callSize, w);
+                            callEdge.setLong(callSize++, offsets.getLong(w));
+                        } else if (componentOf.getInt(w) == -1 && wIndex < lowLink.getInt(v)) {
+                            /* w is still on the Tarjan stack */
+                            lowLink.setInt(v, wIndex);
+                        }
+                        continue;
+                    }
+
+                    /* All edges of v explored, return from its frame */
+                    callSize--;
+                    if (lowLink.getInt(v) == index.getInt(v)) {
+                        /* v is the root of a component, pop its members */
+                        int conflictVertex = -1;
+                        int w;
+                        do {
+                            w = stack.getInt(--stackSize);
+                            componentOf.setInt(w, componentCount);
+                            if (conflictVertex == -1
+                                    && componentOf.getInt(ImplicationGraph.negate(w)) == componentCount) {
+                                conflictVertex = w;
+                            }
+                        } while (w != v);
+                        componentCount++;
+                        if (conflictVertex != -1) {
+                            return new OffHeapSCCResult(componentOf, componentCount, conflictVertex);
+                        }
+                    }
+                    if (callSize > 0) {
+                        int parent = callVertex.getInt(callSize - 1);
+                        if (lowLink.getInt(v) < lowLink.getInt(parent)) {
+                            lowLink.setInt(parent, lowLink.getInt(v));
+                        }
+                    }
+                }
+            }
+            return new OffHeapSCCResult(componentOf, componentCount, -1);
+        }
+    }
+}
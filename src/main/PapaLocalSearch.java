@@ -0,0 +1,283 @@
+package main;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * The inner loop of Papadimitriou's algorithm over primitive arrays. Clauses are stored as pairs of
+ * implication graph vertices, each variable has a CSR list of the clauses it occurs in, and the unsatisfied
+ * clauses are kept in an indexed array with swap-remove, so a uniformly random unsatisfied clause is picked
+ * in O(1). A flip costs a constant amount of work per occurrence of the flipped variable and allocates nothing.
+ */
+public class PapaLocalSearch {
+
+    /**
+     * The number of flips between two checks of the cancellation token and two trajectory samples,
+     * a power of two
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 1 << 12;
+
+    private final int numVariables;
+    private final int numClauses;
+    /**
+     * Clause i is (clauseVertices[2 * i] OR clauseVertices[2 * i + 1]), as implication graph vertices
+     */
+    private final int[] clauseVertices;
+    /**
+     * The clauses containing variable v (0-based) are occurrences[occurrenceOffsets[v]] up to
+     * occurrences[occurrenceOffsets[v + 1]]
+     */
+    private final int[] occurrenceOffsets;
+    private final int[] occurrences;
+
+    /**
+     * The current value of each variable (0-based)
+     */
+    private final boolean[] assignment;
+    /**
+     * The unsatisfied clauses, in no particular order
+     */
+    private final int[] unsatisfied;
+    private int numUnsatisfied;
+    /**
+     * The position of each clause in unsatisfied, or -1 if it is satisfied
+     */
+    private final int[] unsatisfiedPosition;
+    /**
+     * The number of flips made by the last search
+     */
+    private long numFlips;
+    /**
+     * The assignment with the fewest unsatisfied clauses seen since {@link #trackBest()}, or null if untracked
+     */
+    private boolean[] bestAssignment;
+    private int bestUnsatisfied;
+
+    /**
+     * @param instance the instance whose clauses are searched over
+     */
+    public PapaLocalSearch(TwoSATInstance instance) {
+        this(instance.getNumVariables(), toVertices(instance), instance.getNumClauses());
+    }
+
+    /**
+     * @param numVariables the number of variables
+     * @param clauseVertices the clauses as pairs of implication graph vertices
+     * @param numClauses the number of clauses
+     */
+    public PapaLocalSearch(int numVariables, int[] clauseVertices, int numClauses) {
+        this.numVariables = numVariables;
+        this.numClauses = numClauses;
+        this.clauseVertices = clauseVertices;
+        this.assignment = new boolean[numVariables];
+        this.unsatisfied = new int[numClauses];
+        this.unsatisfiedPosition = new int[numClauses];
+
+        occurrenceOffsets = new int[numVariables + 1];
+        for (int i = 0; i < 2 * numClauses; i++) {
+            occurrenceOffsets[(clauseVertices[i] >> 1) + 1]++;
+        }
+        for (int v = 0; v < numVariables; v++) {
+            occurrenceOffsets[v + 1] += occurrenceOffsets[v];
+        }
+        occurrences = new int[2 * numClauses];
+        int[] next = new int[numVariables];
+        System.arraycopy(occurrenceOffsets, 0, next, 0, numVariables);
+        for (int i = 0; i < 2 * numClauses; i++) {
+            occurrences[next[clauseVertices[i] >> 1]++] = i >> 1;
+        }
+    }
+
+    /**
+     * Creates a search with its own assignment over the same clauses as another, sharing the immutable
+     * clause and occurrence arrays
+     * @param template the search whose clauses are shared
+     */
+    public PapaLocalSearch(PapaLocalSearch template) {
+        this.numVariables = template.numVariables;
+        this.numClauses = template.numClauses;
+        this.clauseVertices = template.clauseVertices;
+        this.occurrenceOffsets = template.occurrenceOffsets;
+        this.occurrences = template.occurrences;
+        this.assignment = new boolean[numVariables];
+        this.unsatisfied = new int[numClauses];
+        this.unsatisfiedPosition = new int[numClauses];
+    }
+
+    private static int[] toVertices(TwoSATInstance instance) {
+        int[] clauseVertices = new int[2 * instance.getNumClauses()];
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            clauseVertices[2 * i] = ImplicationGraph.vertexOf(instance.getFirstLiteral(i));
+            clauseVertices[2 * i + 1] = ImplicationGraph.vertexOf(instance.getSecondLiteral(i));
+        }
+        return clauseVertices;
+    }
+
+    /**
+     * Sets the value of a variable without updating the clauses; call {@link #evaluateAll()} afterwards
+     * @param variable the variable, 1-based
+     * @param value its new value
+     */
+    public void assign(int variable, boolean value) {
+        assignment[variable - 1] = value;
+    }
+
+    /**
+     * Recomputes the set of unsatisfied clauses from scratch
+     */
+    public void evaluateAll() {
+        numUnsatisfied = 0;
+        for (int c = 0; c < numClauses; c++) {
+            if (isSatisfied(c)) {
+                unsatisfiedPosition[c] = -1;
+            } else {
+                unsatisfiedPosition[c] = numUnsatisfied;
+                unsatisfied[numUnsatisfied++] = c;
+            }
+        }
+    }
+
+    /**
+     * Runs the random walk: repeatedly picks a uniformly random unsatisfied clause and flips one of its two
+     * variables at random
+     * @param maxFlips the number of flips after which to give up
+     * @param random the source of randomness, which alone determines the walk
+     * @param token checked periodically, the walk gives up once it is cancelled; may be null
+     * @return true if every clause is satisfied, false if the flips ran out or the walk was cancelled
+     */
+    public boolean search(long maxFlips, SplittableRandom random, CancellationToken token) {
+        return search(maxFlips, random, token, SolverListener.NONE, 0);
+    }
+
+    /**
+     * Runs the random walk, sampling the number of unsatisfied clauses into a listener at every check of the
+     * cancellation token
+     * @param maxFlips the number of flips after which to give up
+     * @param random the source of randomness, which alone determines the walk
+     * @param token checked periodically, the walk gives up once it is cancelled; may be null
+     * @param listener receives the samples
+     * @param restart the restart index reported with each sample
+     * @return true if every clause is satisfied, false if the flips ran out or the walk was cancelled
+     */
+    public boolean search(long maxFlips, SplittableRandom random, CancellationToken token,
+                          SolverListener listener, int restart) {
+        boolean sampling = listener != SolverListener.NONE;
+        long flip = 0;
+        try {
+            for (; flip < maxFlips; flip++) {
+                if (numUnsatisfied == 0) {
+                    return true;
+                }
+                if ((flip & (CANCELLATION_CHECK_INTERVAL - 1)) == 0) {
+                    if (bestAssignment != null && numUnsatisfied < bestUnsatisfied) {
+                        saveBest();
+                    }
+                    if (sampling) {
+                        listener.unsatisfiedSampled(restart, flip, numUnsatisfied);
+                    }
+                    if (token != null && token.isCancelled()) {
+                        return false;
+                    }
+                }
+                int clause = unsatisfied[random.nextInt(numUnsatisfied)];
+                int vertex = clauseVertices[2 * clause + (random.nextBoolean() ? 1 : 0)];
+                flip(vertex >> 1);
+            }
+            return numUnsatisfied == 0;
+        } finally {
+            numFlips = flip;
+            if (bestAssignment != null && numUnsatisfied < bestUnsatisfied) {
+                saveBest();
+            }
+        }
+    }
+
+    /**
+     * Starts keeping the assignment with the fewest unsatisfied clauses across the following searches. It is
+     * sampled at every check of the cancellation token and when a search ends, so the copying costs O(n) per
+     * few thousand flips at most, and only while the minimum keeps improving.
+     */
+    public void trackBest() {
+        bestAssignment = new boolean[numVariables];
+        bestUnsatisfied = Integer.MAX_VALUE;
+    }
+
+    private void saveBest() {
+        System.arraycopy(assignment, 0, bestAssignment, 0, numVariables);
+        bestUnsatisfied = numUnsatisfied;
+    }
+
+    /**
+     * Flips a variable and updates every clause it occurs in
+     * @param variable the variable, 0-based
+     */
+    private void flip(int variable) {
+        assignment[variable] = !assignment[variable];
+        for (int o = occurrenceOffsets[variable]; o < occurrenceOffsets[variable + 1]; o++) {
+            int clause = occurrences[o];
+            int position = unsatisfiedPosition[clause];
+            if (isSatisfied(clause)) {
+                if (position >= 0) {
+                    /* Swap-remove from the unsatisfied list */
+                    int last = unsatisfied[--numUnsatisfied];
+                    unsatisfied[position] = last;
+                    unsatisfiedPosition[last] = position;
+                    unsatisfiedPosition[clause] = -1;
+                }
+            } else if (position < 0) {
+                unsatisfiedPosition[clause] = numUnsatisfied;
+                unsatisfied[numUnsatisfied++] = clause;
+            }
+        }
+    }
+
+    private boolean isSatisfied(int clause) {
+        return isTrue(clauseVertices[2 * clause]) || isTrue(clauseVertices[2 * clause + 1]);
+    }
+
+    private boolean isTrue(int vertex) {
+        return assignment[vertex >> 1] == ((vertex & 1) == 0);
+    }
+
+    public int getNumUnsatisfied() {
+        return numUnsatisfied;
+    }
+
+    /**
+     * @return the number of flips made by the last search
+     */
+    public long getNumFlips() {
+        return numFlips;
+    }
+
+    /**
+     * @return the current assignment, where bit v is set if variable v (1-based) is true
+     */
+    public BitSet getAssignment() {
+        return toBits(assignment);
+    }
+
+    /**
+     * @return the best assignment sampled since {@link #trackBest()}, or null if none was
+     */
+    public BitSet getBestAssignment() {
+        return bestAssignment == null || bestUnsatisfied == Integer.MAX_VALUE ? null : toBits(bestAssignment);
+    }
+
+    /**
+     * @return the number of clauses the best assignment leaves unsatisfied
+     */
+    public int getBestUnsatisfied() {
+        return bestUnsatisfied;
+    }
+
+    private BitSet toBits(boolean[] values) {
+        BitSet bits = new BitSet(numVariables + 1);
+        for (int v = 0; v < numVariables; v++) {
+            if (values[v]) {
+                bits.set(v + 1);
+            }
+        }
+        return bits;
+    }
+}
@@ -1,16 +1,84 @@
 package main;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A solution to the 2-SAT problem using Papadimitriou's randomized algorithm
  */
 public class PapaTwoSAT {
 
+    /**
+     * The outcome of an anytime search
+     */
+    public static class Result {
+
+        public enum Verdict {
+            /**
+             * The assignment satisfies every clause
+             */
+            SATISFIABLE,
+            /**
+             * Preprocessing or the equivalence pass found a literal equivalent to its own negation
+             */
+            UNSATISFIABLE,
+            /**
+             * The search stopped without finding a model; the assignment is the best one seen
+             */
+            UNKNOWN
+        }
+
+        private final Verdict verdict;
+        private final BitSet assignment;
+        private final int numUnsatisfied;
+        private final long numFlips;
+
+        Result(Verdict verdict, BitSet assignment, int numUnsatisfied, long numFlips) {
+            this.verdict = verdict;
+            this.assignment = assignment;
+            this.numUnsatisfied = numUnsatisfied;
+            this.numFlips = numFlips;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        /**
+         * @return the model if satisfiable, the assignment with the fewest unsatisfied clauses seen if unknown,
+         * or null if unsatisfiable
+         */
+        public BitSet getAssignment() {
+            return assignment;
+        }
+
+        /**
+         * @return the number of clauses of the original instance the assignment leaves unsatisfied
+         */
+        public int getNumUnsatisfied() {
+            return numUnsatisfied;
+        }
+
+        /**
+         * @return the number of flips made over all restarts
+         */
+        public long getNumFlips() {
+            return numFlips;
+        }
+
+        @Override
+        public String toString() {
+            return verdict + " (" + numUnsatisfied + " unsatisfied after " + numFlips + " flips)";
+        }
+    }
+
     /**
      * Evaluates a 2-SAT clause using a variable to boolean mapping
      * @param varMap mapping of a variables to their boolean values
@@ -36,164 +104,346 @@ public class PapaTwoSAT {
     }
 
     /**
-     * Uses Papadimitriou's algorithm to determine whether a 2-SAT instance is satisfiable.
-     * Does NOT include the other loop for running log(n) times
-     * @param varMap mapping of variables to their boolean values
-     * @param clauseMap mapping of clauses to their boolean values
-     * @param unsatisfiedClauses list of unsatisfied clauses
-     * @return true if the instance can be satisfied, false if otherwise
+     * The outer loop of Papadimitriou's algorithm
+     * @param dataFile the data file to be used
+     * @return true if the 2-SAT instance in the data file is satisfiable, false if otherwise
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
      */
-    private static boolean papaTwoSAT(Map<Integer, Boolean> varMap, Map<Clause, Boolean> clauseMap,
-                                      Set<Clause> unsatisfiedClauses
-            , Map<Integer, Set<Clause>> varToClause) {
-        int numVar = varMap.size();
-        for (long i = 0; i < 2 * Math.pow(numVar, 2); i++) {
-            System.out.printf("%d iteration of the inner loop, " +
-                    "%d unsatisfied clauses left\n", i + 1, unsatisfiedClauses.size());
-            if (unsatisfiedClauses.size() == 0) {
-                return true;
-            }
-            /*
-            ** Pick a random unsatisfied clause
-             */
-            Iterator<Clause> iterator = unsatisfiedClauses.iterator();
-            Clause randUnsatisfiedClause = iterator.next();
+    public static boolean solveTwoSAT(File dataFile) {
+        return solve(dataFile) != null;
+    }
+
+    /**
+     * The outer loop of Papadimitriou's algorithm, returning the satisfying assignment it finds
+     * @param dataFile the data file to be used
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static BitSet solve(File dataFile) {
+        return solve(dataFile, SolverListener.NONE);
+    }
+
+    /**
+     * The outer loop of Papadimitriou's algorithm, returning the satisfying assignment it finds
+     * @param dataFile the data file to be used
+     * @param listener receives the parse time and the events of {@link #solve(TwoSATInstance, long, SolverListener)}
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static BitSet solve(File dataFile, SolverListener listener) {
+        TwoSATInstance instance;
+        try {
+            long start = System.nanoTime();
+            instance = ClauseLoader.load(dataFile);
+            listener.parsed(System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return solve(instance, new SplittableRandom().nextLong(), listener);
+    }
 
-            int randVar = randUnsatisfiedClause.getRandomLiteral();
+    /**
+     * The outer loop of Papadimitriou's algorithm: log2(n) random restarts of 2n^2 flips each
+     * @param instance the 2-SAT instance
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
+     */
+    public static BitSet solve(TwoSATInstance instance) {
+        return solve(instance, new SplittableRandom().nextLong());
+    }
 
-            boolean oldVal = varMap.get(Math.abs(randVar));
-            /* Flip the value of that random variable */
-            varMap.put(randVar, !oldVal);
+    /**
+     * The outer loop of Papadimitriou's algorithm, run one restart after another on the reduced instance
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found. The same seed gives the same result as the reproducible mode of
+     * {@link #solvePortfolio(TwoSATInstance, long, int, boolean, SolverListener)}.
+     */
+    public static BitSet solve(TwoSATInstance instance, long masterSeed) {
+        return solve(instance, masterSeed, SolverListener.NONE);
+    }
 
-            /* Update all the clauses associated with that variable */
-            boolean newClauseVal = evaluateClause(varMap, randUnsatisfiedClause);
-            if (newClauseVal) {
-                unsatisfiedClauses.remove(randUnsatisfiedClause);
+    /**
+     * The outer loop of Papadimitriou's algorithm, run one restart after another on the reduced instance
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param listener receives the preprocessing time, each restart's flip count and samples of the number of
+     *                 unsatisfied clauses
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
+     */
+    public static BitSet solve(TwoSATInstance instance, long masterSeed, SolverListener listener) {
+        PrunedInstance pruned = PrunedInstance.create(instance, listener);
+        if (pruned == null) {
+            return null;
+        }
+        SplittableRandom[] randoms = splitRandoms(masterSeed, pruned.numRestarts);
+        for (int i = 0; i < pruned.numRestarts; i++) {
+            BitSet assignment = restart(pruned, pruned.search, randoms[i], null, listener, i, pruned.maxFlips);
+            if (assignment != null) {
+                return assignment;
             }
-            clauseMap.put(randUnsatisfiedClause, newClauseVal);
-            /*
-             * Re-evaluate all clauses that the randomly chosen variable is a part of
-             */
-            for (Clause clause : varToClause.get(randVar)) {
-                if (clauseMap.containsKey((clause))) {
-                    if (!evaluateClause(varMap, clause)) {
-                        unsatisfiedClauses.add(clause);
-                        clauseMap.put(clause, false);
-                    } else {
-                        clauseMap.put(clause, true);
-                    }
-                }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the restarts of Papadimitriou's algorithm one after another until one succeeds, the flip budget is
+     * spent or the token is cancelled, and returns the best assignment seen. With an unlimited budget and a
+     * token that is never cancelled it finds the same model as {@link #solve(TwoSATInstance, long)}.
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param flipBudget the number of flips over all restarts, {@link Long#MAX_VALUE} for the usual
+     *                   log2(n) restarts of 2n^2 flips
+     * @param token stops the search when cancelled or past its deadline, see
+     *              {@link CancellationToken#withTimeout}; may be null
+     * @return the verdict, the best assignment and the number of flips made
+     */
+    public static Result solveAnytime(TwoSATInstance instance, long masterSeed, long flipBudget,
+                                      CancellationToken token) {
+        return solveAnytime(instance, masterSeed, flipBudget, token, SolverListener.NONE);
+    }
+
+    /**
+     * Runs the restarts of Papadimitriou's algorithm within a budget, as
+     * {@link #solveAnytime(TwoSATInstance, long, long, CancellationToken)} does
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param flipBudget the number of flips over all restarts
+     * @param token stops the search when cancelled or past its deadline; may be null
+     * @param listener receives the events of {@link #solve(TwoSATInstance, long, SolverListener)}
+     * @return the verdict, the best assignment and the number of flips made
+     */
+    public static Result solveAnytime(TwoSATInstance instance, long masterSeed, long flipBudget,
+                                      CancellationToken token, SolverListener listener) {
+        PrunedInstance pruned = PrunedInstance.create(instance, listener);
+        if (pruned == null) {
+            return new Result(Result.Verdict.UNSATISFIABLE, null, 0, 0);
+        }
+        SplittableRandom[] randoms = splitRandoms(masterSeed, pruned.numRestarts);
+        PapaLocalSearch search = pruned.search;
+        search.trackBest();
+        long flips = 0;
+        /* The first restart always runs, so that even an exhausted budget yields a seeded assignment */
+        for (int i = 0; i < pruned.numRestarts; i++) {
+            if (i > 0 && (flips >= flipBudget || (token != null && token.isCancelled()))) {
+                break;
             }
-            for (Clause clause : varToClause.get(-randVar)) {
-                if (clauseMap.containsKey(clause)) {
-                    if (!evaluateClause(varMap, clause)) {
-                        unsatisfiedClauses.add(clause);
-                        clauseMap.put(clause, false);
-                    } else {
-                        clauseMap.put(clause, true);
-                    }
-                }
+            long maxFlips = Math.min(pruned.maxFlips, flipBudget - flips);
+            BitSet assignment = restart(pruned, search, randoms[i], token, listener, i, maxFlips);
+            flips += search.getNumFlips();
+            if (assignment != null) {
+                return new Result(Result.Verdict.SATISFIABLE, assignment, 0, flips);
             }
         }
-        return false;
+        BitSet best = pruned.preprocessed.expand(pruned.equivalences.expand(search.getBestAssignment()));
+        return new Result(Result.Verdict.UNKNOWN, best, instance.countUnsatisfied(best), flips);
     }
 
     /**
-     * Gets a random boolean value with equal probability for true and false
-     * @return true or false
+     * Runs the restarts of Papadimitriou's algorithm concurrently, each with its own generator split from
+     * the master seed. There are at least as many restarts as threads, more than the usual log2(n) when threads
+     * outnumber them, so every thread has a walk to run. The first restart to succeed cancels all the others
+     * and its model is returned, so the wall-clock time falls with the number of threads. Which model that is
+     * depends on timing; the verdict does not. See {@link #solvePortfolio(TwoSATInstance, long, int, boolean, SolverListener)} for a
+     * reproducible mode.
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param threads the number of restarts to run at once, and the least number of restarts
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
      */
-    private static boolean getRandomBool() {
-        return Math.random() >= 0.5;
+    public static BitSet solvePortfolio(TwoSATInstance instance, long masterSeed, int threads) {
+        return solvePortfolio(instance, masterSeed, threads, false, SolverListener.NONE);
     }
 
     /**
-     * The outer loop of Papadimitriou's algorithm
-     * @param dataFile the data file to be used
-     * @return true if the 2-SAT instance in the data file is satisfiable, false if otherwise
+     * Runs the restarts of Papadimitriou's algorithm concurrently, as {@link #solvePortfolio(TwoSATInstance,
+     * long, int)} does
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param threads the number of restarts to run at once
+     * @param listener receives events from every restart, concurrently
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
      */
-    public static boolean solveTwoSAT(File dataFile) {
-        Set<Clause> allClauses = null;
-        int numVars = 0;
-        Map<Integer, Set<Clause>> varToClause;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(dataFile))) {
-            numVars = Integer.parseInt(br.readLine());
-            allClauses = new HashSet<>(numVars);
-            varToClause = new HashMap<>(numVars);
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] splitLine = line.split(" ");
-                int literalOne = Integer.parseInt(splitLine[0]);
-                int literalTwo = Integer.parseInt(splitLine[1]);
-
-                Clause newClause = new Clause(literalOne, literalTwo);
-                if (!varToClause.containsKey(literalOne)) {
-                    varToClause.put(literalOne, new HashSet<>());
-                }
-                varToClause.get(literalOne).add(newClause);
-
-                if (!varToClause.containsKey(literalTwo)) {
-                    varToClause.put(literalTwo, new HashSet<>());
-                }
-                varToClause.get(literalTwo).add(newClause);
-
-                allClauses.add(newClause);
-            }
+    public static BitSet solvePortfolio(TwoSATInstance instance, long masterSeed, int threads,
+                                        SolverListener listener) {
+        return solvePortfolio(instance, masterSeed, threads, false, listener);
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-        double logTwoN = Math.log(numVars) / Math.log(2);
-        for (int i = 0; i < logTwoN; i++) {
-            System.out.printf("%d iteration of the outer loop\n", i + 1);
-            Map<Integer, Boolean> varMap = new HashMap<>();
-            Map<Clause, Boolean> clauseMap = new HashMap<>();
-            Set<Clause> unsatisfiedClauses = new HashSet<>();
-            /*
-             * Assign the variables randomly
-             */
-            for (int var = 1; var <= numVars; var++) {
-                boolean boolVal = getRandomBool();
-                varMap.put(var, boolVal);
-            }
-            /*
-             ** Make a copy of the key set for varToClause for pruning
-             */
-            Set<Integer> copyOfKeys = new HashSet<>(varToClause.keySet());
-            for (Integer key : copyOfKeys) {
-                /*
-                 * If the key only exists in one form, then we can remove all its associated clauses
-                 * from consideration, since those clauses can easily be made true
-                 */
-                if (!varToClause.containsKey(-key)) {
-                    Set<Clause> clauses = varToClause.get(key);
-                    allClauses.removeAll(clauses);
-                    varToClause.remove(key);
-                    varMap.remove(key);
-                }
+    /**
+     * Runs the restarts of Papadimitriou's algorithm concurrently.
+     * In reproducible mode a success cancels only the later restarts, the earlier ones run on, and the earliest
+     * successful restart gives the result. Each restart's walk depends only on its own generator, so the
+     * model is the same for any number of threads and equal to {@link #solve(TwoSATInstance, long)} with the
+     * same seed, at the cost of waiting for earlier restarts that fail. For the same reason reproducible mode
+     * runs only the usual log2(n) restarts, however many threads there are.
+     * @param instance the 2-SAT instance
+     * @param masterSeed the seed every restart's generator is split from
+     * @param threads the number of restarts to run at once
+     * @param reproducible true to return the earliest restart's model, false to return the first found
+     * @param listener receives events from every restart, concurrently
+     * @return the assignment, where bit v is set if variable v is true, or null if no satisfying
+     * assignment was found
+     */
+    public static BitSet solvePortfolio(TwoSATInstance instance, long masterSeed, int threads,
+                                        boolean reproducible, SolverListener listener) {
+        PrunedInstance pruned = PrunedInstance.create(instance, listener);
+        if (pruned == null) {
+            return null;
+        }
+        int numRestarts = reproducible ? pruned.numRestarts : Math.max(pruned.numRestarts, threads);
+        SplittableRandom[] randoms = splitRandoms(masterSeed, numRestarts);
+        CancellationToken[] tokens = new CancellationToken[numRestarts];
+        for (int i = 0; i < numRestarts; i++) {
+            tokens[i] = new CancellationToken();
+        }
+        BitSet[] results = new BitSet[numRestarts];
+        /* The index of the restart whose model is returned, numRestarts while there is none */
+        AtomicInteger firstSolved = new AtomicInteger(numRestarts);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, numRestarts)));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numRestarts; i++) {
+                int restartIndex = i;
+                futures.add(executor.submit(() -> {
+                    if (tokens[restartIndex].isCancelled()) {
+                        return;
+                    }
+                    BitSet assignment = restart(pruned, new PapaLocalSearch(pruned.search),
+                            randoms[restartIndex], tokens[restartIndex], listener, restartIndex, pruned.maxFlips);
+                    if (assignment == null) {
+                        return;
+                    }
+                    results[restartIndex] = assignment;
+                    if (!reproducible) {
+                        if (firstSolved.compareAndSet(numRestarts, restartIndex)) {
+                            for (CancellationToken token : tokens) {
+                                token.cancel();
+                            }
+                        }
+                        return;
+                    }
+                    int solved = firstSolved.get();
+                    while (restartIndex < solved && !firstSolved.compareAndSet(solved, restartIndex)) {
+                        solved = firstSolved.get();
+                    }
+                    for (int later = restartIndex + 1; later < numRestarts; later++) {
+                        tokens[later].cancel();
+                    }
+                }));
             }
-            /*
-             * Compute corresponding clause boolean values
-             */
-            for (Clause clause : allClauses) {
-                boolean clauseVal = evaluateClause(varMap, clause);
-                clauseMap.put(clause, clauseVal);
-                if (!clauseVal) {
-                    unsatisfiedClauses.add(clause);
-                }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        int solved = firstSolved.get();
+        return solved < numRestarts ? results[solved] : null;
+    }
 
-            /*
-            ** Run Papadimitriou's algorithm
-             */
-            if (papaTwoSAT(varMap, clauseMap, unsatisfiedClauses, varToClause)) {
-                return true;
+    /**
+     * Splits one generator per restart from the master seed, in restart order
+     */
+    private static SplittableRandom[] splitRandoms(long masterSeed, int numRestarts) {
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        SplittableRandom[] randoms = new SplittableRandom[numRestarts];
+        for (int i = 0; i < numRestarts; i++) {
+            randoms[i] = master.split();
+        }
+        return randoms;
+    }
+
+    /**
+     * Runs one restart from the best of 64 random assignments, all evaluated in one bit-sliced pass
+     * @param maxFlips the number of flips after which the restart gives up
+     * @return the satisfying assignment found, or null
+     */
+    private static BitSet restart(PrunedInstance pruned, PapaLocalSearch search, SplittableRandom random,
+                                  CancellationToken token, SolverListener listener, int restartIndex,
+                                  long maxFlips) {
+        /*
+         * Assign the variables randomly, starting from the assignment with the fewest unsatisfied clauses
+         */
+        long[] words = new long[pruned.numVars];
+        pruned.evaluator.randomize(words, random);
+        int lane = BitSlicedEvaluator.bestLane(pruned.evaluator.countUnsatisfied(words));
+        for (int var = 1; var <= pruned.numVars; var++) {
+            search.assign(var, BitSlicedEvaluator.valueOf(words, var, lane));
+        }
+        search.evaluateAll();
+
+        /*
+        ** Run Papadimitriou's algorithm
+         */
+        boolean satisfied = search.search(maxFlips, random, token, listener, restartIndex);
+        listener.restartCompleted(restartIndex, search.getNumFlips(), satisfied);
+        if (!satisfied) {
+            return null;
+        }
+        /* Merged variables take the value of their quotient literal, and preprocessing's fixed values fill the rest */
+        return pruned.preprocessed.expand(pruned.equivalences.expand(search.getAssignment()));
+    }
+
+    /**
+     * An instance reduced by the {@link Preprocessor} and then by {@link EquivalenceReduction}, ready to be
+     * searched. The restart count and flip budget follow the number of quotient variables.
+     */
+    private static class PrunedInstance {
+        private final Preprocessor.Result preprocessed;
+        private final EquivalenceReduction equivalences;
+        private final int numVars;
+        private final PapaLocalSearch search;
+        /**
+         * Picks each restart's starting point, shared by concurrent restarts since it holds only the clauses
+         */
+        private final BitSlicedEvaluator evaluator;
+        private final int numRestarts;
+        private final long maxFlips;
+
+        /**
+         * Preprocesses an instance and merges its equivalent literals
+         * @return the instance ready to be searched, or null if either reduction found a conflict
+         */
+        static PrunedInstance create(TwoSATInstance instance, SolverListener listener) {
+            long start = System.nanoTime();
+            Preprocessor.Result preprocessed = Preprocessor.preprocess(instance);
+            listener.passCompleted("preprocess", System.nanoTime() - start);
+            if (!preprocessed.isSatisfiable()) {
+                return null;
             }
+            start = System.nanoTime();
+            EquivalenceReduction equivalences = EquivalenceReduction.reduce(preprocessed.getReduced());
+            listener.passCompleted("equivalences", System.nanoTime() - start);
+            return equivalences.isSatisfiable() ? new PrunedInstance(preprocessed, equivalences) : null;
+        }
+
+        private PrunedInstance(Preprocessor.Result preprocessed, EquivalenceReduction equivalences) {
+            this.preprocessed = preprocessed;
+            this.equivalences = equivalences;
+            TwoSATInstance quotient = equivalences.getQuotient();
+            numVars = quotient.getNumVariables();
+            search = new PapaLocalSearch(quotient);
+            evaluator = new BitSlicedEvaluator(quotient);
+            numRestarts = (int) Math.ceil(Math.max(1, Math.log(numVars) / Math.log(2)));
+            maxFlips = 2L * numVars * numVars;
         }
-        return false;
     }
+
     public static void main(String[] args) {
         String solvableStr = "";
 //        System.out.println(System.getProperty("user.dir"));
@@ -0,0 +1,445 @@
+package main;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-core strongly connected component decomposition of an {@link ImplicationGraph}.
+ * Vertices with no live in-edges or no live out-edges are trimmed first, as they are components of their
+ * own. The rest is split with the forward-backward algorithm: the vertices both reachable from and reaching
+ * a pivot form its component, and the three remaining parts (descendants, ancestors, and unrelated vertices)
+ * are decomposed independently as fork-join tasks. Parts below a cutoff run Tarjan's algorithm sequentially.
+ * <p>
+ * The resulting components are the same as those of {@link TarjanSCC}, and ids are again numbered in a
+ * reverse topological order of the condensation, so {@link SCCResult#toAssignment()} and the verdict behave
+ * exactly as for the sequential engine. The particular numbering may differ where the order is not forced.
+ * Graphs below the sequential threshold are handed to {@link TarjanSCC} directly.
+ */
+public class ParallelSCC {
+
+    /**
+     * Graphs with fewer vertices than this are decomposed sequentially
+     */
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 17;
+    /**
+     * Parts with fewer vertices than this are decomposed with a sequential Tarjan search inside their task
+     */
+    private static final int TASK_CUTOFF = 1 << 12;
+    /**
+     * Trimming rounds with fewer vertices than this continue on a sequential worklist
+     */
+    private static final int PARALLEL_TRIM_CUTOFF = 1 << 12;
+    /**
+     * Part id of vertices that already belong to a component
+     */
+    private static final int DONE = -1;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+    private final int numVertices;
+
+    /**
+     * The sub-problem each vertex currently belongs to, or DONE
+     */
+    private final int[] part;
+    /**
+     * Provisional component label of each vertex in the core, -1 until assigned
+     */
+    private final int[] label;
+    /**
+     * Discovery index and low link for the sequential searches, each vertex is touched by one task only
+     */
+    private final int[] index;
+    private final int[] lowLink;
+    private final AtomicInteger nextPart = new AtomicInteger(1);
+    private final AtomicInteger nextLabel = new AtomicInteger();
+
+    /**
+     * Trimmed vertices, in the order they must be numbered: sinks from the front, sources from the back
+     */
+    private final int[] sinkOrder;
+    private int sinkCount;
+    private final int[] sourceOrder;
+    private int sourceCount;
+
+    private ParallelSCC(ImplicationGraph graph) {
+        this.offsets = graph.getOffsets();
+        this.targets = graph.getTargets();
+        this.reverseOffsets = graph.getReverseOffsets();
+        this.reverseTargets = graph.getReverseTargets();
+        this.numVertices = graph.getNumVertices();
+        this.part = new int[numVertices];
+        this.label = new int[numVertices];
+        this.index = new int[numVertices];
+        this.lowLink = new int[numVertices];
+        this.sinkOrder = new int[numVertices];
+        this.sourceOrder = new int[numVertices];
+        Arrays.fill(label, -1);
+        Arrays.fill(index, -1);
+    }
+
+    /**
+     * Computes the SCCs of the implication graph on the common pool
+     * @param graph the implication graph
+     * @return the components, every vertex labelled
+     */
+    public static SCCResult compute(ImplicationGraph graph) {
+        return compute(graph, DEFAULT_SEQUENTIAL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the SCCs of the implication graph
+     * @param graph the implication graph
+     * @param sequentialThreshold graphs with fewer vertices are decomposed by {@link TarjanSCC}
+     * @param pool the pool the decomposition runs on
+     * @return the components, every vertex labelled
+     */
+    public static SCCResult compute(ImplicationGraph graph, int sequentialThreshold, ForkJoinPool pool) {
+        if (graph.getNumVertices() < sequentialThreshold) {
+            return TarjanSCC.compute(graph, false);
+        }
+        return pool.invoke(new RecursiveTask<SCCResult>() {
+            @Override
+            protected SCCResult compute() {
+                return new ParallelSCC(graph).decompose();
+            }
+        });
+    }
+
+    private SCCResult decompose() {
+        trim();
+
+        int[] core = IntStream.range(0, numVertices).parallel().filter(v -> part[v] == 0).toArray();
+        OrderNode coreOrder = core.length == 0 ? null : new PartTask(0, core).invoke();
+
+        /* Rank the provisional labels of the core in reverse topological order */
+        int[] rank = new int[nextLabel.get()];
+        int numCoreComponents = 0;
+        ArrayDeque<OrderNode> pending = new ArrayDeque<>();
+        if (coreOrder != null) {
+            pending.push(coreOrder);
+        }
+        while (!pending.isEmpty()) {
+            OrderNode node = pending.pop();
+            if (node.labels != null) {
+                for (int l : node.labels) {
+                    rank[l] = numCoreComponents++;
+                }
+            } else {
+                for (int i = node.children.length - 1; i >= 0; i--) {
+                    if (node.children[i] != null) {
+                        pending.push(node.children[i]);
+                    }
+                }
+            }
+        }
+
+        /* Sinks first, then the core, then sources in reverse order of trimming */
+        int[] componentOf = new int[numVertices];
+        int firstCore = sinkCount;
+        int firstSource = sinkCount + numCoreComponents;
+        IntStream.range(0, sinkCount).parallel().forEach(i -> componentOf[sinkOrder[i]] = i);
+        IntStream.range(0, sourceCount).parallel()
+                .forEach(i -> componentOf[sourceOrder[i]] = firstSource + sourceCount - 1 - i);
+        IntStream.of(core).parallel().forEach(v -> componentOf[v] = firstCore + rank[label[v]]);
+
+        int conflictVertex = IntStream.range(0, numVertices / 2).parallel()
+                .map(i -> 2 * i)
+                .filter(v -> componentOf[v] == componentOf[ImplicationGraph.negate(v)])
+                .findFirst().orElse(-1);
+        return new SCCResult(componentOf, firstSource + sourceCount, conflictVertex);
+    }
+
+    /**
+     * Removes vertices with no live in-edges or no live out-edges. A vertex without live out-edges can only
+     * reach components numbered before it, so sinks are numbered in trimming order from the front, and
+     * sources in trimming order from the back.
+     */
+    private void trim() {
+        AtomicIntegerArray outDegree = new AtomicIntegerArray(numVertices);
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(numVertices);
+        IntStream.range(0, numVertices).parallel().forEach(v -> {
+            outDegree.set(v, offsets[v + 1] - offsets[v]);
+            inDegree.set(v, reverseOffsets[v + 1] - reverseOffsets[v]);
+        });
+        int[] frontier = IntStream.range(0, numVertices).parallel()
+                .filter(v -> outDegree.get(v) == 0 || inDegree.get(v) == 0).toArray();
+        for (int v : frontier) {
+            part[v] = DONE;
+        }
+
+        int[] next = new int[numVertices];
+        AtomicInteger nextSize = new AtomicInteger();
+        while (frontier.length >= PARALLEL_TRIM_CUTOFF) {
+            int[] round = frontier;
+            /* Classify the whole round before any degree changes */
+            boolean[] isSink = new boolean[round.length];
+            IntStream.range(0, round.length).parallel().forEach(i -> isSink[i] = outDegree.get(round[i]) == 0);
+            for (int i = 0; i < round.length; i++) {
+                if (isSink[i]) {
+                    sinkOrder[sinkCount++] = round[i];
+                } else {
+                    sourceOrder[sourceCount++] = round[i];
+                }
+            }
+            nextSize.set(0);
+            IntStream.range(0, round.length).parallel().forEach(i -> {
+                int v = round[i];
+                if (isSink[i]) {
+                    for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                        claimIfTrimmed(reverseTargets[e], outDegree, next, nextSize);
+                    }
+                } else {
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        claimIfTrimmed(targets[e], inDegree, next, nextSize);
+                    }
+                }
+            });
+            frontier = Arrays.copyOf(next, nextSize.get());
+        }
+
+        /* Finish the tail on a worklist, classifying each vertex as it is removed */
+        int[] worklist = Arrays.copyOf(frontier, Math.max(frontier.length, 16));
+        int size = frontier.length;
+        while (size > 0) {
+            int v = worklist[--size];
+            if (outDegree.get(v) == 0) {
+                sinkOrder[sinkCount++] = v;
+                for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                    int u = reverseTargets[e];
+                    if (part[u] == 0 && outDegree.decrementAndGet(u) == 0) {
+                        part[u] = DONE;
+                        worklist = grow(worklist, size);
+                        worklist[size++] = u;
+                    }
+                }
+            } else {
+                sourceOrder[sourceCount++] = v;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (part[w] == 0 && inDegree.decrementAndGet(w) == 0) {
+                        part[w] = DONE;
+                        worklist = grow(worklist, size);
+                        worklist[size++] = w;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Decrements a live neighbour's degree and adds it to the next trimming round when it drops to zero
+     */
+    private void claimIfTrimmed(int vertex, AtomicIntegerArray degree, int[] next, AtomicInteger nextSize) {
+        if (part[vertex] != 0) {
+            return;
+        }
+        if (degree.decrementAndGet(vertex) == 0) {
+            synchronized (next) {
+                if (part[vertex] == 0) {
+                    part[vertex] = DONE;
+                    next[nextSize.getAndIncrement()] = vertex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Components of a part in reverse topological order: either a leaf list of labels, or the concatenation
+     * of the children's orders
+     */
+    private static class OrderNode {
+        private final int[] labels;
+        private final OrderNode[] children;
+
+        OrderNode(int[] labels) {
+            this.labels = labels;
+            this.children = null;
+        }
+
+        OrderNode(OrderNode... children) {
+            this.labels = null;
+            this.children = children;
+        }
+    }
+
+    /**
+     * Decomposes one part of the core with a forward-backward split around a pivot
+     */
+    @SuppressWarnings("serial")
+    private class PartTask extends RecursiveTask<OrderNode> {
+
+        private final int partId;
+        private final int[] vertices;
+
+        PartTask(int partId, int[] vertices) {
+            this.partId = partId;
+            this.vertices = vertices;
+        }
+
+        @Override
+        protected OrderNode compute() {
+            if (vertices.length < TASK_CUTOFF) {
+                return new OrderNode(tarjan(partId, vertices));
+            }
+            int pivot = vertices[vertices.length / 2];
+            int forwardPart = nextPart.getAndIncrement();
+            int backwardPart = nextPart.getAndIncrement();
+            int[] queue = new int[vertices.length];
+
+            /* Forward search: everything reachable from the pivot inside the part */
+            int head = 0;
+            int tail = 0;
+            part[pivot] = forwardPart;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (part[w] == partId) {
+                        part[w] = forwardPart;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+
+            /* Backward search: reached forward vertices form the pivot's component */
+            int componentLabel = nextLabel.getAndIncrement();
+            head = 0;
+            tail = 0;
+            part[pivot] = DONE;
+            label[pivot] = componentLabel;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                    int u = reverseTargets[e];
+                    if (part[u] == forwardPart) {
+                        part[u] = DONE;
+                        label[u] = componentLabel;
+                        queue[tail++] = u;
+                    } else if (part[u] == partId) {
+                        part[u] = backwardPart;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+
+            int[] descendants = select(forwardPart);
+            int[] ancestors = select(backwardPart);
+            int[] unrelated = select(partId);
+            PartTask descendantTask = descendants.length == 0 ? null : new PartTask(forwardPart, descendants);
+            PartTask ancestorTask = ancestors.length == 0 ? null : new PartTask(backwardPart, ancestors);
+            PartTask unrelatedTask = unrelated.length == 0 ? null : new PartTask(partId, unrelated);
+            if (ancestorTask != null) {
+                ancestorTask.fork();
+            }
+            if (unrelatedTask != null) {
+                unrelatedTask.fork();
+            }
+            OrderNode descendantOrder = descendantTask == null ? null : descendantTask.compute();
+            OrderNode unrelatedOrder = unrelatedTask == null ? null : unrelatedTask.join();
+            OrderNode ancestorOrder = ancestorTask == null ? null : ancestorTask.join();
+            /* Descendants close first, ancestors last; unrelated vertices have no edges to the pivot's component */
+            return new OrderNode(descendantOrder, new OrderNode(new int[]{componentLabel}),
+                    unrelatedOrder, ancestorOrder);
+        }
+
+        private int[] select(int id) {
+            int count = 0;
+            for (int v : vertices) {
+                if (part[v] == id) {
+                    count++;
+                }
+            }
+            int[] selected = new int[count];
+            count = 0;
+            for (int v : vertices) {
+                if (part[v] == id) {
+                    selected[count++] = v;
+                }
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * Tarjan's algorithm restricted to the vertices of one part, labelling each component as it closes
+     * @return the new labels in closing order, which is reverse topological
+     */
+    private int[] tarjan(int partId, int[] vertices) {
+        int size = vertices.length;
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int[] callVertex = new int[size];
+        int[] callEdge = new int[size];
+        int callSize = 0;
+        int[] labels = new int[size];
+        int numLabels = 0;
+        int nextIndex = 0;
+
+        for (int root : vertices) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            callVertex[callSize] = root;
+            callEdge[callSize++] = offsets[root];
+
+            while (callSize > 0) {
+                int v = callVertex[callSize - 1];
+                int e = callEdge[callSize - 1];
+                if (e < offsets[v + 1]) {
+                    callEdge[callSize - 1] = e + 1;
+                    int w = targets[e];
+                    if (part[w] != partId) {
+                        continue;
+                    }
+                    if (index[w] == -1) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        callVertex[callSize] = w;
+                        callEdge[callSize++] = offsets[w];
+                    } else if (label[w] == -1 && index[w] < lowLink[v]) {
+                        lowLink[v] = index[w];
+                    }
+                    continue;
+                }
+
+                callSize--;
+                if (lowLink[v] == index[v]) {
+                    int componentLabel = nextLabel.getAndIncrement();
+                    labels[numLabels++] = componentLabel;
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        label[w] = componentLabel;
+                    } while (w != v);
+                }
+                if (callSize > 0) {
+                    int parent = callVertex[callSize - 1];
+                    if (lowLink[v] < lowLink[parent]) {
+                        lowLink[parent] = lowLink[v];
+                    }
+                }
+            }
+        }
+        for (int v : vertices) {
+            part[v] = DONE;
+        }
+        return Arrays.copyOf(labels, numLabels);
+    }
+
+    private static int[] grow(int[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, 2 * array.length);
+    }
+}
@@ -0,0 +1,150 @@
+package main;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Solves instances one batch after another with the CSR and Tarjan arrays kept between calls, so that a
+ * long-running solver allocates only when an instance is larger than any before it. A batch of instances is
+ * solved as their disjoint union: the variables of each are shifted past those of the previous ones, one
+ * forward graph is built, and one Tarjan pass labels every vertex, after which each instance's verdict and
+ * assignment are read off its own range of vertices. Only the forward graph is built, since the search needs
+ * no reverse edges. Not thread-safe; each worker keeps its own.
+ */
+public class PooledSolver {
+
+    private int[] offsets = new int[1];
+    private int[] targets = new int[0];
+    private int[] next = new int[0];
+    private int[] componentOf = new int[0];
+    private int[] index = new int[0];
+    private int[] lowLink = new int[0];
+    private int[] stack = new int[0];
+    private int[] callVertex = new int[0];
+    private int[] callEdge = new int[0];
+
+    /**
+     * Solves one instance, stopping at the first conflict
+     * @param instance the instance
+     * @return the assignment, where bit v is set if variable v is true, or null if unsatisfiable
+     */
+    public BitSet solve(TwoSATInstance instance) {
+        return solveAll(List.of(instance))[0];
+    }
+
+    /**
+     * Solves several instances together
+     * @param instances the instances
+     * @return the assignment of each instance, or null for each unsatisfiable one
+     */
+    public BitSet[] solveAll(List<TwoSATInstance> instances) {
+        int numInstances = instances.size();
+        long totalVertices = 0;
+        long totalEdges = 0;
+        for (TwoSATInstance instance : instances) {
+            totalVertices += 2L * instance.getNumVariables();
+            totalEdges += 2L * instance.getNumClauses();
+        }
+        if (totalVertices > Integer.MAX_VALUE - 1 || totalEdges > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Batch too large for one graph");
+        }
+        int numVertices = (int) totalVertices;
+        ensureCapacity(numVertices, (int) totalEdges);
+
+        /* Count out-degrees, shifted by one so the prefix sum yields the start offsets */
+        Arrays.fill(offsets, 0, numVertices + 1, 0);
+        int base = 0;
+        for (TwoSATInstance instance : instances) {
+            for (int i = 0; i < instance.getNumClauses(); i++) {
+                offsets[ImplicationGraph.negate(base + ImplicationGraph.vertexOf(instance.getFirstLiteral(i))) + 1]++;
+                offsets[ImplicationGraph.negate(base + ImplicationGraph.vertexOf(instance.getSecondLiteral(i))) + 1]++;
+            }
+            base += 2 * instance.getNumVariables();
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        System.arraycopy(offsets, 0, next, 0, numVertices);
+        base = 0;
+        for (TwoSATInstance instance : instances) {
+            for (int i = 0; i < instance.getNumClauses(); i++) {
+                int first = base + ImplicationGraph.vertexOf(instance.getFirstLiteral(i));
+                int second = base + ImplicationGraph.vertexOf(instance.getSecondLiteral(i));
+                targets[next[ImplicationGraph.negate(first)]++] = second;
+                targets[next[ImplicationGraph.negate(second)]++] = first;
+            }
+            base += 2 * instance.getNumVariables();
+        }
+
+        /* A single instance may stop at its first conflict; in a batch one conflict must not hide the others */
+        long outcome = TarjanSCC.search(numVertices, offsets, targets, numInstances == 1, componentOf,
+                index, lowLink, stack, callVertex, callEdge);
+        BitSet[] assignments = new BitSet[numInstances];
+        if (numInstances == 1 && (int) outcome != -1) {
+            return assignments;
+        }
+        base = 0;
+        for (int k = 0; k < numInstances; k++) {
+            int numVariables = instances.get(k).getNumVariables();
+            BitSet assignment = new BitSet(numVariables + 1);
+            for (int v = 0; v < numVariables; v++) {
+                int component = componentOf[base + 2 * v];
+                int negated = componentOf[base + 2 * v + 1];
+                if (component == negated) {
+                    assignment = null;
+                    break;
+                }
+                if (component < negated) {
+                    assignment.set(v + 1);
+                }
+            }
+            assignments[k] = assignment;
+            base += 2 * numVariables;
+        }
+        return assignments;
+    }
+
+    /**
+     * Releases the arrays if they have grown past the given sizes, so that one large instance does not pin its
+     * arrays for the life of the solver; the next call allocates what it needs again
+     * @param maxVertices the most vertices to keep room for
+     * @param maxEdges the most edges to keep room for
+     */
+    public void trim(int maxVertices, int maxEdges) {
+        if (componentOf.length > maxVertices) {
+            offsets = new int[1];
+            next = new int[0];
+            componentOf = new int[0];
+            index = new int[0];
+            lowLink = new int[0];
+            stack = new int[0];
+            callVertex = new int[0];
+            callEdge = new int[0];
+        }
+        if (targets.length > maxEdges) {
+            targets = new int[0];
+        }
+    }
+
+    /**
+     * Grows the arrays to fit a graph, by at least half their size so that slowly growing instances do not
+     * reallocate every time
+     */
+    private void ensureCapacity(int numVertices, int numEdges) {
+        if (numVertices > componentOf.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 1, Math.max(numVertices, componentOf.length * 3L / 2));
+            offsets = new int[capacity + 1];
+            next = new int[capacity];
+            componentOf = new int[capacity];
+            index = new int[capacity];
+            lowLink = new int[capacity];
+            stack = new int[capacity];
+            callVertex = new int[capacity];
+            callEdge = new int[capacity];
+        }
+        if (numEdges > targets.length) {
+            targets = new int[(int) Math.min(Integer.MAX_VALUE, Math.max(numEdges, targets.length * 3L / 2))];
+        }
+    }
+}
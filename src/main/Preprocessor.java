@@ -0,0 +1,273 @@
+package main;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Simplifies a 2-SAT instance before it reaches either solver. Tautologies (x OR NOT x) and duplicate
+ * clauses are dropped, then unit clauses (x OR x) are propagated and pure literals eliminated, repeatedly,
+ * until neither applies. The remaining variables are renumbered densely, and the result keeps what is
+ * needed to map an assignment of the reduced instance back to the original variables.
+ */
+public class Preprocessor {
+
+    /**
+     * The outcome of preprocessing: either a conflict, or a reduced instance and a reconstruction map
+     */
+    public static class Result {
+        private final boolean satisfiable;
+        private final TwoSATInstance reduced;
+        /**
+         * The original variable (1-based) of each reduced variable, indexed by reduced variable
+         */
+        private final int[] originalVariable;
+        /**
+         * The value fixed for each original variable (0-based): 1 for true, -1 for false, 0 if not fixed
+         */
+        private final byte[] fixedValue;
+        private final int numOriginalVariables;
+        private final int numOriginalClauses;
+
+        Result(boolean satisfiable, TwoSATInstance reduced, int[] originalVariable, byte[] fixedValue,
+               int numOriginalVariables, int numOriginalClauses) {
+            this.satisfiable = satisfiable;
+            this.reduced = reduced;
+            this.originalVariable = originalVariable;
+            this.fixedValue = fixedValue;
+            this.numOriginalVariables = numOriginalVariables;
+            this.numOriginalClauses = numOriginalClauses;
+        }
+
+        /**
+         * @return false if unit propagation derived a contradiction, true if otherwise
+         */
+        public boolean isSatisfiable() {
+            return satisfiable;
+        }
+
+        /**
+         * @return the reduced instance, or null if unsatisfiable
+         */
+        public TwoSATInstance getReduced() {
+            return reduced;
+        }
+
+        /**
+         * Maps a reduced variable back to the original one
+         * @param reducedVariable a variable of the reduced instance, 1-based
+         * @return the original variable, 1-based
+         */
+        public int getOriginalVariable(int reducedVariable) {
+            return originalVariable[reducedVariable];
+        }
+
+        /**
+         * Expands an assignment of the reduced instance into one of the original instance. Eliminated variables
+         * take their fixed values and variables that vanished with their clauses are set to false.
+         * @param reducedAssignment bit v set if reduced variable v is true
+         * @return bit v set if original variable v is true
+         */
+        public BitSet expand(BitSet reducedAssignment) {
+            BitSet assignment = new BitSet(numOriginalVariables + 1);
+            for (int v = 0; v < numOriginalVariables; v++) {
+                if (fixedValue[v] == 1) {
+                    assignment.set(v + 1);
+                }
+            }
+            for (int r = reducedAssignment.nextSetBit(1); r >= 0 && r < originalVariable.length;
+                 r = reducedAssignment.nextSetBit(r + 1)) {
+                assignment.set(originalVariable[r]);
+            }
+            return assignment;
+        }
+
+        public int getNumEliminatedVariables() {
+            return satisfiable ? numOriginalVariables - reduced.getNumVariables() : numOriginalVariables;
+        }
+
+        public int getNumRemovedClauses() {
+            return satisfiable ? numOriginalClauses - reduced.getNumClauses() : numOriginalClauses;
+        }
+    }
+
+    /**
+     * Preprocesses an instance
+     * @param instance the instance
+     * @return the reduced instance with its reconstruction map, or a conflict
+     */
+    public static Result preprocess(TwoSATInstance instance) {
+        int numVariables = instance.getNumVariables();
+        int numVertices = 2 * numVariables;
+        long[] keys = normalizeClauses(instance);
+        int numClauses = keys.length;
+
+        /* Clause literals as vertices, and for each literal the clauses it occurs in */
+        int[] first = new int[numClauses];
+        int[] second = new int[numClauses];
+        int[] count = new int[numVertices];
+        for (int c = 0; c < numClauses; c++) {
+            first[c] = (int) (keys[c] >>> 32);
+            second[c] = (int) keys[c];
+            count[first[c]]++;
+            if (second[c] != first[c]) {
+                count[second[c]]++;
+            }
+        }
+        int[] offsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] = offsets[v] + count[v];
+        }
+        int[] occurrences = new int[offsets[numVertices]];
+        int[] next = Arrays.copyOf(offsets, numVertices);
+        for (int c = 0; c < numClauses; c++) {
+            occurrences[next[first[c]]++] = c;
+            if (second[c] != first[c]) {
+                occurrences[next[second[c]]++] = c;
+            }
+        }
+
+        byte[] value = new byte[numVariables];
+        boolean[] removed = new boolean[numClauses];
+        /* Literals made true but not yet propagated; a variable is assigned, and queued, at most once */
+        int[] queue = new int[numVariables];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < numClauses && tail >= 0; c++) {
+            if (first[c] == second[c]) {
+                tail = enqueue(first[c], value, queue, tail);
+            }
+        }
+        for (int v = 0; v < numVertices && tail >= 0; v++) {
+            if (value[v >> 1] == 0 && count[v] > 0 && count[ImplicationGraph.negate(v)] == 0) {
+                tail = enqueue(v, value, queue, tail);
+            }
+        }
+
+        while (head < tail) {
+            int literal = queue[head++];
+            /* Clauses containing the literal are satisfied */
+            for (int o = offsets[literal]; o < offsets[literal + 1]; o++) {
+                int c = occurrences[o];
+                if (!removed[c]) {
+                    tail = remove(c, first, second, removed, count, value, queue, tail);
+                }
+            }
+            /* Clauses containing its negation force their other literal */
+            int negation = ImplicationGraph.negate(literal);
+            for (int o = offsets[negation]; o < offsets[negation + 1] && tail >= 0; o++) {
+                int c = occurrences[o];
+                if (!removed[c]) {
+                    tail = enqueue(first[c] == negation ? second[c] : first[c], value, queue, tail);
+                    if (tail >= 0) {
+                        tail = remove(c, first, second, removed, count, value, queue, tail);
+                    }
+                }
+            }
+        }
+        if (tail < 0) {
+            return new Result(false, null, null, null, numVariables, instance.getNumClauses());
+        }
+
+        /* Renumber the variables that still occur */
+        int[] reducedVariable = new int[numVariables];
+        int numReducedVariables = 0;
+        int numReducedClauses = 0;
+        for (int c = 0; c < numClauses; c++) {
+            if (!removed[c]) {
+                numReducedClauses++;
+                if (reducedVariable[first[c] >> 1] == 0) {
+                    reducedVariable[first[c] >> 1] = ++numReducedVariables;
+                }
+                if (reducedVariable[second[c] >> 1] == 0) {
+                    reducedVariable[second[c] >> 1] = ++numReducedVariables;
+                }
+            }
+        }
+        int[] originalVariable = new int[numReducedVariables + 1];
+        for (int v = 0; v < numVariables; v++) {
+            if (reducedVariable[v] != 0) {
+                originalVariable[reducedVariable[v]] = v + 1;
+            }
+        }
+        int[] clauseLiterals = new int[2 * numReducedClauses];
+        int position = 0;
+        for (int c = 0; c < numClauses; c++) {
+            if (!removed[c]) {
+                clauseLiterals[position++] = reducedLiteral(first[c], reducedVariable);
+                clauseLiterals[position++] = reducedLiteral(second[c], reducedVariable);
+            }
+        }
+        TwoSATInstance reduced = new TwoSATInstance(numReducedVariables, clauseLiterals, numReducedClauses);
+        return new Result(true, reduced, originalVariable, value, numVariables, instance.getNumClauses());
+    }
+
+    /**
+     * Makes a literal true and queues it for propagation
+     * @return the new queue tail, or -1 if the literal is already false
+     */
+    private static int enqueue(int literal, byte[] value, int[] queue, int tail) {
+        int variable = literal >> 1;
+        byte wanted = (literal & 1) == 0 ? (byte) 1 : (byte) -1;
+        if (value[variable] == 0) {
+            value[variable] = wanted;
+            queue[tail++] = literal;
+            return tail;
+        }
+        return value[variable] == wanted ? tail : -1;
+    }
+
+    /**
+     * Removes a clause, and makes true the negation of any unassigned literal that no longer occurs, as it
+     * has become pure
+     * @return the new queue tail
+     */
+    private static int remove(int c, int[] first, int[] second, boolean[] removed, int[] count, byte[] value,
+                              int[] queue, int tail) {
+        removed[c] = true;
+        tail = decrement(first[c], count, value, queue, tail);
+        if (second[c] != first[c]) {
+            tail = decrement(second[c], count, value, queue, tail);
+        }
+        return tail;
+    }
+
+    private static int decrement(int literal, int[] count, byte[] value, int[] queue, int tail) {
+        if (--count[literal] == 0 && value[literal >> 1] == 0 && count[ImplicationGraph.negate(literal)] > 0) {
+            tail = enqueue(ImplicationGraph.negate(literal), value, queue, tail);
+        }
+        return tail;
+    }
+
+    private static int reducedLiteral(int vertex, int[] reducedVariable) {
+        int variable = reducedVariable[vertex >> 1];
+        return (vertex & 1) == 0 ? variable : -variable;
+    }
+
+    /**
+     * Normalizes the clause set of an instance: each clause becomes a pair of vertices (smaller first) packed
+     * into a long, tautologies are dropped, and the keys are sorted and deduplicated. Clause order and literal
+     * order within a clause therefore do not matter.
+     * @param instance the instance
+     * @return the sorted distinct clause keys, the smaller vertex in the high 32 bits
+     */
+    static long[] normalizeClauses(TwoSATInstance instance) {
+        long[] keys = new long[instance.getNumClauses()];
+        int numKeys = 0;
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            int a = ImplicationGraph.vertexOf(instance.getFirstLiteral(i));
+            int b = ImplicationGraph.vertexOf(instance.getSecondLiteral(i));
+            if (a == ImplicationGraph.negate(b)) {
+                continue;
+            }
+            keys[numKeys++] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        }
+        Arrays.sort(keys, 0, numKeys);
+        int distinct = 0;
+        for (int i = 0; i < numKeys; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+}
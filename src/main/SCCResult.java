@@ -0,0 +1,85 @@
+package main;
+
+import java.util.BitSet;
+
+/**
+ * The strongly connected components of an implication graph, as computed by {@link TarjanSCC}.
+ * Component ids are assigned in the order the components are closed, which is a reverse topological
+ * order of the condensation: every edge between two different components goes from the higher id to the lower.
+ */
+public class SCCResult {
+
+    /**
+     * Maps each vertex to the id of its component, or -1 if the search stopped before reaching it
+     */
+    private final int[] componentOf;
+    /**
+     * The number of components closed
+     */
+    private final int componentCount;
+    /**
+     * A vertex that shares its component with its own negation, or -1 if there is none
+     */
+    private final int conflictVertex;
+
+    SCCResult(int[] componentOf, int componentCount, int conflictVertex) {
+        this.componentOf = componentOf;
+        this.componentCount = componentCount;
+        this.conflictVertex = conflictVertex;
+    }
+
+    /**
+     * @return true if no literal is in the same component as its negation
+     */
+    public boolean isSatisfiable() {
+        return conflictVertex == -1;
+    }
+
+    /**
+     * Reads a satisfying assignment off the component ids. Since ids follow reverse topological order,
+     * a literal is set to true when its component comes after its negation's in that order, i.e. has the
+     * smaller id. This costs one comparison per variable and no further graph traversal.
+     * @return the assignment, where bit v is set if variable v (1-based) is true,
+     *         or null if the instance is unsatisfiable
+     */
+    public BitSet toAssignment() {
+        if (!isSatisfiable()) {
+            return null;
+        }
+        int numVertices = componentOf.length;
+        BitSet assignment = new BitSet(numVertices / 2 + 1);
+        for (int v = 0; v < numVertices; v += 2) {
+            if (componentOf[v] < componentOf[ImplicationGraph.negate(v)]) {
+                assignment.set((v >> 1) + 1);
+            }
+        }
+        return assignment;
+    }
+
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public int getConflictVertex() {
+        return conflictVertex;
+    }
+
+    /**
+     * Counts the vertices of every component in one pass over the component ids
+     * @return the number of vertices in the largest component, 0 if there is none
+     */
+    public int getLargestComponentSize() {
+        int[] sizes = new int[componentCount];
+        int largest = 0;
+        for (int component : componentOf) {
+            if (component >= 0) {
+                largest = Math.max(largest, ++sizes[component]);
+            }
+        }
+        return largest;
+    }
+}
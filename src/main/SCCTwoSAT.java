@@ -1,15 +1,17 @@
 package main;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Implements a solution to the 2-SAT problem by treating the problem as an implication graph.
  * Kosaraju's algorithm for finding strongly connected components (SCC) is then used to determine if the
  * 2-SAT instance is satisfiable.
+ * The Map-based Kosaraju methods are kept for existing callers; {@link #computeSatisfiability(File)} runs
+ * a single iterative Tarjan pass over the CSR {@link ImplicationGraph} instead.
  */
 public class SCCTwoSAT {
     /**
@@ -40,6 +42,31 @@ public class SCCTwoSAT {
      */
     private Map<Integer, Set<Integer>> sccMap;
 
+    /**
+     * True to decompose large implication graphs with {@link ParallelSCC} instead of {@link TarjanSCC}
+     */
+    private boolean parallel;
+    /**
+     * True to reduce instances with the {@link Preprocessor} before building their graph
+     */
+    private boolean preprocessing;
+    /**
+     * True to renumber variables for locality before building the graph
+     */
+    private boolean reordering;
+    /**
+     * Receives parse, build and pass times and component statistics
+     */
+    private SolverListener listener = SolverListener.NONE;
+    /**
+     * True to build the graph and run the SCC search off the heap
+     */
+    private boolean offHeap;
+    /**
+     * The directory for the off-heap backing files, or null for direct memory
+     */
+    private Path offHeapDirectory;
+
     /**
      * Outer loop for the DFS subroutine in Kosaraju's algorithm for finding SCCs
      * @param graph the graph in question, as an adjacency list
@@ -47,6 +74,13 @@ public class SCCTwoSAT {
      * @return false if the 2-SAT instance represented by the graph is not satisfiable, true if otherwise
      */
     public boolean outerDFSLoop(Map<Integer, Set<Integer>> graph, boolean firstPass) {
+        long start = System.nanoTime();
+        boolean satisfiable = runDFSLoop(graph, firstPass);
+        listener.passCompleted(firstPass ? "kosarajuFirstPass" : "kosarajuSecondPass", System.nanoTime() - start);
+        return satisfiable;
+    }
+
+    private boolean runDFSLoop(Map<Integer, Set<Integer>> graph, boolean firstPass) {
         if (firstPass) {
             this.finishingTime = 0;
             this.finishingTimeMap = new HashMap<>();
@@ -135,38 +169,42 @@ public class SCCTwoSAT {
     }
 
     /**
-     * Creates the implication graph of a 2-SAT instance
+     * Creates the implication graph of a 2-SAT instance in compressed sparse row form
      * @param file file containing the 2-SAT data
-     * @return the implication graph as an adjacency list
+     * @return the implication graph, or null if the file could not be read
      */
-    public Map<Integer, Set<Integer>> formTwoSATGraph(File file) {
-        Map<Integer, Set<Integer>> graph;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            /* Consume the first line, which is just the number of literals in the 2-SAT instance */
-            this.numVariables = Integer.parseInt(br.readLine());
-            graph = new HashMap<>();
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                String[] splitLine = line.split(" ");
-                int firstLiteral = Integer.parseInt(splitLine[0]);
-                int secondLiteral = Integer.parseInt(splitLine[1]);
-
-                if (!graph.containsKey(-firstLiteral)) {
-                    graph.put(-firstLiteral, new HashSet<>());
-                }
-                graph.get(-firstLiteral).add(secondLiteral);
-
-                if (!graph.containsKey(-secondLiteral)) {
-                    graph.put(-secondLiteral, new HashSet<>());
-                }
-                graph.get(-secondLiteral).add(firstLiteral);
-            }
+    public ImplicationGraph formImplicationGraph(File file) {
+        try {
+            return readGraph(file);
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
-        return graph;
+    }
+
+    private ImplicationGraph readGraph(File file) throws IOException {
+        if (DimacsReader.isDimacs(file)) {
+            ImplicationGraph graph = buildDimacsGraph(file);
+            this.numVariables = graph.getNumVariables();
+            return graph;
+        }
+        TwoSATInstance instance = load(file);
+        this.numVariables = instance.getNumVariables();
+        return buildGraph(instance);
+    }
+
+    /**
+     * Creates the implication graph of a 2-SAT instance.
+     * Kept as an adapter over {@link #formImplicationGraph(File)} for callers of the Map-based API.
+     * @param file file containing the 2-SAT data
+     * @return the implication graph as an adjacency list
+     */
+    public Map<Integer, Set<Integer>> formTwoSATGraph(File file) {
+        ImplicationGraph graph = formImplicationGraph(file);
+        if (graph == null) {
+            return null;
+        }
+        return graph.toAdjacencyMap();
     }
 
     /**
@@ -196,7 +234,6 @@ public class SCCTwoSAT {
                                                        Map<Integer, Integer> finishingTimeMap) {
         Map<Integer, Set<Integer>> renumberedGraph = new HashMap<>();
         for (int key : graph.keySet()) {
-            System.out.println("key: " + key);
             int finishingTime = finishingTimeMap.get(key);
             renumberedGraph.put(finishingTime, new HashSet<>());
             for (int vertex : graph.get(key)) {
@@ -210,14 +247,239 @@ public class SCCTwoSAT {
      * Computes the satisfiability of a 2-SAT instance
      * @param file the 2-SAT data file
      * @return true if satisfiable, false if otherwise
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
      */
     public boolean computeSatisfiability(File file) {
-        Map<Integer, Set<Integer>> graph = formTwoSATGraph(file);
-        Map<Integer, Set<Integer>> reverseGraph = formReverseGraph(graph);
+        return solve(file) != null;
+    }
+
+    /**
+     * Computes the satisfiability of a 2-SAT instance
+     * @param graph the implication graph of the 2-SAT instance
+     * @return true if satisfiable, false if otherwise
+     */
+    public boolean computeSatisfiability(ImplicationGraph graph) {
+        return solve(graph) != null;
+    }
+
+    /**
+     * Finds a satisfying assignment of a 2-SAT instance. A DIMACS file, compressed or not, is streamed straight
+     * into the implication graph without a clause list, so preprocessing and reordering are skipped for it.
+     * @param file the 2-SAT data file
+     * @return the assignment, where bit v is set if variable v is true, or null if the instance is unsatisfiable
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public BitSet solve(File file) {
+        TwoSATInstance instance;
+        try {
+            if (!offHeap && DimacsReader.isDimacs(file)) {
+                ImplicationGraph graph = buildDimacsGraph(file);
+                this.numVariables = graph.getNumVariables();
+                return solve(graph);
+            }
+            instance = load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.numVariables = instance.getNumVariables();
+        return solve(instance);
+    }
 
-        outerDFSLoop(reverseGraph, true);
-        Map<Integer, Set<Integer>> renumberedGraph = renumberVertices(graph, this.finishingTimeMap);
-        return outerDFSLoop(renumberedGraph, false);
+    /**
+     * Finds a satisfying assignment of a 2-SAT instance in O(n + m). If preprocessing is enabled the instance is
+     * first reduced by the {@link Preprocessor}, at the cost of a clause sort, and only what remains is turned into
+     * a graph, with its variables renumbered by {@link VariableReordering} if reordering is enabled. In off-heap
+     * mode the instance goes straight to {@link #solveOffHeap(TwoSATInstance)}.
+     * @param instance the 2-SAT instance
+     * @return the assignment, where bit v is set if variable v is true, or null if unsatisfiable
+     */
+    public BitSet solve(TwoSATInstance instance) {
+        if (offHeap) {
+            return solveOffHeap(instance);
+        }
+        if (!preprocessing) {
+            return solveReordered(instance);
+        }
+        long start = System.nanoTime();
+        Preprocessor.Result preprocessed = Preprocessor.preprocess(instance);
+        listener.passCompleted("preprocess", System.nanoTime() - start);
+        if (!preprocessed.isSatisfiable()) {
+            return null;
+        }
+        BitSet reducedAssignment = solveReordered(preprocessed.getReduced());
+        return reducedAssignment == null ? null : preprocessed.expand(reducedAssignment);
+    }
+
+    /**
+     * Builds the graph and solves, first renumbering the variables if reordering is enabled
+     */
+    private BitSet solveReordered(TwoSATInstance instance) {
+        if (!reordering) {
+            return solve(buildGraph(instance));
+        }
+        long start = System.nanoTime();
+        VariableReordering reorder = VariableReordering.compute(instance);
+        TwoSATInstance renumbered = reorder.apply(instance);
+        listener.passCompleted("reorder", System.nanoTime() - start);
+        BitSet assignment = solve(buildGraph(renumbered));
+        return assignment == null ? null : reorder.restore(assignment);
+    }
+
+    /**
+     * Finds a satisfying assignment with the graph, the component ids and the DFS stacks all held off the heap,
+     * file-backed if an off-heap directory is set. The preprocessor is skipped, since it works on heap arrays
+     * proportional to the instance. With an instance read from the binary format, the heap holds only the
+     * assignment.
+     * @param instance the 2-SAT instance
+     * @return the assignment, where bit v is set if variable v is true, or null if unsatisfiable
+     */
+    public BitSet solveOffHeap(TwoSATInstance instance) {
+        long start = System.nanoTime();
+        try (OffHeapImplicationGraph graph = OffHeapImplicationGraph.build(instance, offHeapDirectory)) {
+            listener.graphBuilt(System.nanoTime() - start, graph.getNumVertices(),
+                    (int) Math.min(Integer.MAX_VALUE, graph.getNumEdges()));
+            start = System.nanoTime();
+            try (OffHeapSCCResult components = OffHeapTarjanSCC.compute(graph, offHeapDirectory)) {
+                listener.passCompleted("offHeapTarjan", System.nanoTime() - start);
+                return components.toAssignment();
+            }
+        }
+    }
+
+    /**
+     * Finds a satisfying assignment with a single iterative pass of Tarjan's algorithm over the CSR arrays.
+     * The search stops as soon as a literal and its negation share a component; otherwise the assignment
+     * is read off the component ids in O(n).
+     * @param graph the implication graph of the 2-SAT instance
+     * @return the assignment, where bit v is set if variable v is true, or null if unsatisfiable
+     */
+    public BitSet solve(ImplicationGraph graph) {
+        return computeComponents(graph).toAssignment();
+    }
+
+    /**
+     * Finds the literals that are true in every satisfying assignment of a 2-SAT instance
+     * @param file the 2-SAT data file
+     * @return the backbone, or null if the instance is unsatisfiable
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public BackboneAnalysis computeBackbone(File file) {
+        ImplicationGraph graph;
+        try {
+            graph = readGraph(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        SCCResult components = parallel ? ParallelSCC.compute(graph) : TarjanSCC.compute(graph, false);
+        if (!components.isSatisfiable()) {
+            return null;
+        }
+        return BackboneAnalysis.compute(Condensation.build(graph, components));
+    }
+
+    /**
+     * Explains why a 2-SAT instance is unsatisfiable, with clauses of the file itself. The graph is built
+     * from the clauses as loaded, without preprocessing or reordering, so that every edge is an input clause;
+     * past the single Tarjan pass, only the conflicting component is searched.
+     * @param file the 2-SAT data file
+     * @return the witness, or null if the instance is satisfiable
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public UnsatWitness explainUnsatisfiability(File file) {
+        ImplicationGraph graph;
+        try {
+            graph = readGraph(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return UnsatWitness.extract(graph, TarjanSCC.compute(graph));
+    }
+
+    /**
+     * Computes the SCCs of an implication graph with the configured engine
+     * @param graph the implication graph of the 2-SAT instance
+     * @return the components
+     */
+    public SCCResult computeComponents(ImplicationGraph graph) {
+        long start = System.nanoTime();
+        SCCResult result = parallel ? ParallelSCC.compute(graph) : TarjanSCC.compute(graph);
+        if (listener != SolverListener.NONE) {
+            listener.passCompleted(parallel ? "parallelSCC" : "tarjan", System.nanoTime() - start);
+            listener.componentsFound(result.getComponentCount(), result.getLargestComponentSize());
+        }
+        return result;
+    }
+
+    private TwoSATInstance load(File file) throws IOException {
+        long start = System.nanoTime();
+        TwoSATInstance instance = ClauseLoader.load(file);
+        listener.parsed(System.nanoTime() - start);
+        return instance;
+    }
+
+    /**
+     * Builds the graph of a DIMACS file in two streaming passes; parsing is part of the graph build time
+     */
+    private ImplicationGraph buildDimacsGraph(File file) throws IOException {
+        long start = System.nanoTime();
+        ImplicationGraph graph = DimacsReader.buildGraph(file);
+        listener.graphBuilt(System.nanoTime() - start, graph.getNumVertices(), graph.getNumEdges());
+        return graph;
+    }
+
+    private ImplicationGraph buildGraph(TwoSATInstance instance) {
+        long start = System.nanoTime();
+        ImplicationGraph graph = ImplicationGraph.build(instance);
+        listener.graphBuilt(System.nanoTime() - start, graph.getNumVertices(), graph.getNumEdges());
+        return graph;
+    }
+
+    /**
+     * @param parallel true to decompose graphs above {@link ParallelSCC#DEFAULT_SEQUENTIAL_THRESHOLD} vertices
+     *                 on the fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param preprocessing true to reduce instances with the {@link Preprocessor} before building their graph.
+     *                      Its clause sort makes the solve O(m log m) and it rebuilds the instance, dropping any
+     *                      stored graph offsets, so it only pays off when the reduction is large.
+     */
+    public void setPreprocessing(boolean preprocessing) {
+        this.preprocessing = preprocessing;
+    }
+
+    /**
+     * @param reordering true to renumber the variables breadth-first with {@link VariableReordering} before
+     *                   building the graph. This pays off on large structured instances, where the search then
+     *                   runs several times faster, but on random instances it costs about as much as it saves.
+     */
+    public void setReordering(boolean reordering) {
+        this.reordering = reordering;
+    }
+
+    /**
+     * @param offHeap true to solve instances with {@link #solveOffHeap(TwoSATInstance)}
+     * @param directory the directory for the backing files, or null for direct memory, which is limited by
+     *                  -XX:MaxDirectMemorySize
+     */
+    public void setOffHeap(boolean offHeap, Path directory) {
+        this.offHeap = offHeap;
+        this.offHeapDirectory = directory;
+    }
+
+    /**
+     * @param listener receives parse, graph build and pass times and component statistics,
+     *                 {@link SolverListener#NONE} to detach
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,487 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches solve results by the content of the instance. The key is a SHA-256 digest, truncated to 128 bits, of
+ * the number of variables and the normalized clause set of {@link Preprocessor#normalizeClauses}, fed to the
+ * digest in chunks; clause order, literal order, duplicates and tautologies therefore do not change the key.
+ * Results are kept in a least-recently-used map bounded by an estimate of their heap size, and optionally in
+ * an append-only store file that is memory-mapped for reading and survives restarts. Concurrent requests for
+ * the same key are coalesced: one thread solves and the others wait for its result.
+ */
+public class SolveCache implements AutoCloseable {
+
+    /**
+     * The fixed heap cost charged for every cached entry on top of its arrays
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int DIGEST_CHUNK_CLAUSES = 8192;
+
+    /**
+     * The key of an instance: the first 128 bits of the digest of its normalized clause set
+     */
+    public static class Key {
+        private final long high;
+        private final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return high == key.high && low == key.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high ^ low);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * A cached result
+     */
+    public static class Entry {
+        private final boolean satisfiable;
+        private final BitSet model;
+        private final int[] componentOf;
+
+        Entry(boolean satisfiable, BitSet model, int[] componentOf) {
+            this.satisfiable = satisfiable;
+            this.model = model;
+            this.componentOf = componentOf;
+        }
+
+        public boolean isSatisfiable() {
+            return satisfiable;
+        }
+
+        /**
+         * @return a copy of the model, where bit v is set if variable v is true, or null if unsatisfiable
+         */
+        public BitSet getModel() {
+            return model == null ? null : (BitSet) model.clone();
+        }
+
+        /**
+         * @return the component of every implication graph vertex from a full Tarjan labelling, or null if
+         * the components were not requested; shared, not to be modified
+         */
+        public int[] getComponentOf() {
+            return componentOf;
+        }
+
+        long estimatedBytes() {
+            return ENTRY_OVERHEAD_BYTES + (model == null ? 0 : model.size() / 8)
+                    + (componentOf == null ? 0 : 4L * componentOf.length);
+        }
+    }
+
+    private final long maxBytes;
+    private long usedBytes;
+    /**
+     * The entries in access order, guarded by itself
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The solve in progress for each key, if any
+     */
+    private final ConcurrentHashMap<Key, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final Store store;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Creates a cache held in memory only
+     * @param maxBytes the estimated heap the cached entries may use together
+     */
+    public SolveCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.store = null;
+    }
+
+    /**
+     * Creates a cache backed by a store file, which is created if it does not exist. Entries already in the
+     * file are served without solving.
+     * @param maxBytes the estimated heap the entries cached in memory may use together
+     * @param storeFile the store file
+     * @throws IOException if the store file cannot be opened or is not a store
+     */
+    public SolveCache(long maxBytes, Path storeFile) throws IOException {
+        this.maxBytes = maxBytes;
+        this.store = new Store(storeFile);
+    }
+
+    /**
+     * Computes the key of an instance
+     * @param instance the instance
+     * @return the key, equal for instances with the same variables and set of non-tautological clauses
+     */
+    public static Key keyOf(TwoSATInstance instance) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long[] clauses = Preprocessor.normalizeClauses(instance);
+        ByteBuffer chunk = ByteBuffer.allocate(8 * DIGEST_CHUNK_CLAUSES).order(ByteOrder.LITTLE_ENDIAN);
+        chunk.putInt(instance.getNumVariables()).putInt(clauses.length);
+        for (long clause : clauses) {
+            if (!chunk.hasRemaining()) {
+                digest.update(chunk.flip());
+                chunk.clear();
+            }
+            chunk.putLong(clause);
+        }
+        digest.update(chunk.flip());
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new Key(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Loads and solves an instance file through the cache
+     * @param file the instance file
+     * @return the result
+     * @throws IOException if the file cannot be read
+     */
+    public Entry solve(File file) throws IOException {
+        return solve(ClauseLoader.load(file), false);
+    }
+
+    /**
+     * Solves an instance through the cache, without keeping its components
+     * @param instance the instance
+     * @return the result
+     */
+    public Entry solve(TwoSATInstance instance) {
+        return solve(instance, false);
+    }
+
+    /**
+     * Solves an instance through the cache. A cached result without components does not satisfy a request
+     * for them; the instance is solved again and the richer result replaces it.
+     * @param instance the instance
+     * @param withComponents true to label every vertex with a full Tarjan pass and cache the component ids
+     * @return the result
+     */
+    public Entry solve(TwoSATInstance instance, boolean withComponents) {
+        Key key = keyOf(instance);
+        while (true) {
+            Entry entry = lookup(key, withComponents);
+            if (entry != null) {
+                return entry;
+            }
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                coalesced.incrementAndGet();
+                try {
+                    entry = running.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+                if (!withComponents || entry.componentOf != null) {
+                    return entry;
+                }
+                continue;
+            }
+            try {
+                /* Another thread may have finished between the lookup and claiming the key */
+                entry = lookup(key, withComponents);
+                if (entry == null) {
+                    misses.incrementAndGet();
+                    entry = compute(instance, withComponents);
+                    put(key, entry);
+                    if (store != null) {
+                        store.append(key, instance.getNumVariables(), entry);
+                    }
+                }
+                mine.complete(entry);
+                return entry;
+            } catch (IOException e) {
+                mine.completeExceptionally(e);
+                throw new IllegalStateException("Could not write to the store", e);
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    private static Entry compute(TwoSATInstance instance, boolean withComponents) {
+        if (!withComponents) {
+            BitSet model = new SCCTwoSAT().solve(instance);
+            return new Entry(model != null, model, null);
+        }
+        SCCResult components = TarjanSCC.compute(ImplicationGraph.build(instance), false);
+        return new Entry(components.isSatisfiable(), components.toAssignment(), components.getComponentOf());
+    }
+
+    /**
+     * Looks a key up in memory, then in the store
+     * @return the entry, or null if it is missing or lacks requested components
+     */
+    private Entry lookup(Key key, boolean withComponents) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && (!withComponents || entry.componentOf != null)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        if (store != null) {
+            entry = store.read(key);
+            if (entry != null && (!withComponents || entry.componentOf != null)) {
+                storeHits.incrementAndGet();
+                put(key, entry);
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                usedBytes -= previous.estimatedBytes();
+            }
+            usedBytes += entry.estimatedBytes();
+            /* Evict from the least recently used end, but never the entry just added */
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && entries.size() > 1) {
+                Map.Entry<Key, Entry> evicted = eldest.next();
+                usedBytes -= evicted.getValue().estimatedBytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests answered from memory
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests answered from the store file
+     */
+    public long getStoreHits() {
+        return storeHits.get();
+    }
+
+    /**
+     * @return the number of requests that ran a solver
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of requests that waited for an identical request already being solved
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of entries held in memory
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * The append-only store file. All values are little-endian:
+     * <pre>
+     *   magic ("2SRC"), version,
+     *   then per record: key high, key low (longs), flags, numVariables, numVertices (ints),
+     *                    model (numVariables / 64 + 1 longs), componentOf (numVertices ints) if flags has COMPONENTS
+     * </pre>
+     * On opening, the records are scanned once to index their offsets, and a record cut short by a crash is
+     * truncated. Records are read from a read-only mapping of the file, so the file must stay below 2 GB. Appends
+     * go through the channel and leave the mapping alone; the file is mapped again only when a read reaches a
+     * record past the end of the current mapping, so a run of appends costs one remap rather than one each.
+     */
+    private static class Store {
+        private static final int MAGIC = ('2') | ('S' << 8) | ('R' << 16) | ('C' << 24);
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 8;
+        private static final int RECORD_HEADER_BYTES = 28;
+        private static final int FLAG_SATISFIABLE = 1;
+        private static final int FLAG_COMPONENTS = 2;
+
+        private final FileChannel channel;
+        /**
+         * The offset of the latest record of each key
+         */
+        private final Map<Key, Long> offsets = new HashMap<>();
+        private MappedByteBuffer mapped;
+        private long size;
+
+        Store(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                size = channel.size();
+                if (size == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putInt(VERSION).flip();
+                    writeFully(header, 0);
+                    size = HEADER_BYTES;
+                }
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Store larger than 2 GB: " + file);
+                }
+                remap();
+                if (size < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                    throw new IOException("Not a solve cache store: " + file);
+                }
+                long offset = HEADER_BYTES;
+                while (offset + RECORD_HEADER_BYTES <= size) {
+                    long end = offset + recordBytes((int) offset);
+                    if (end > size) {
+                        break;
+                    }
+                    offsets.put(new Key(mapped.getLong((int) offset), mapped.getLong((int) offset + 8)), offset);
+                    offset = end;
+                }
+                if (offset < size) {
+                    channel.truncate(offset);
+                    size = offset;
+                    remap();
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private long recordBytes(int offset) {
+            int flags = mapped.getInt(offset + 16);
+            int numVariables = mapped.getInt(offset + 20);
+            int numVertices = mapped.getInt(offset + 24);
+            return RECORD_HEADER_BYTES + 8L * (numVariables / 64 + 1)
+                    + ((flags & FLAG_COMPONENTS) != 0 ? 4L * numVertices : 0);
+        }
+
+        synchronized Entry read(Key key) {
+            Long boxed = offsets.get(key);
+            if (boxed == null) {
+                return null;
+            }
+            int offset = boxed.intValue();
+            if (offset + RECORD_HEADER_BYTES > mapped.capacity() || offset + recordBytes(offset) > mapped.capacity()) {
+                /* Appended since the file was last mapped; one mapping then covers every record so far */
+                try {
+                    remap();
+                } catch (IOException e) {
+                    /* Treated as a miss; the instance is solved again */
+                    return null;
+                }
+            }
+            int flags = mapped.getInt(offset + 16);
+            int numVariables = mapped.getInt(offset + 20);
+            int numVertices = mapped.getInt(offset + 24);
+            int position = offset + RECORD_HEADER_BYTES;
+            long[] words = new long[numVariables / 64 + 1];
+            mapped.slice(position, 8 * words.length).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+            position += 8 * words.length;
+            int[] componentOf = null;
+            if ((flags & FLAG_COMPONENTS) != 0) {
+                componentOf = new int[numVertices];
+                mapped.slice(position, 4 * numVertices).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(componentOf);
+            }
+            boolean satisfiable = (flags & FLAG_SATISFIABLE) != 0;
+            return new Entry(satisfiable, satisfiable ? BitSet.valueOf(words) : null, componentOf);
+        }
+
+        synchronized void append(Key key, int numVariables, Entry entry) throws IOException {
+            int[] componentOf = entry.componentOf;
+            int numVertices = componentOf == null ? 0 : componentOf.length;
+            int flags = (entry.satisfiable ? FLAG_SATISFIABLE : 0) | (componentOf != null ? FLAG_COMPONENTS : 0);
+            long[] words = new long[numVariables / 64 + 1];
+            if (entry.model != null) {
+                long[] modelWords = entry.model.toLongArray();
+                System.arraycopy(modelWords, 0, words, 0, Math.min(words.length, modelWords.length));
+            }
+            long bytes = RECORD_HEADER_BYTES + 8L * words.length + 4L * numVertices;
+            if (size + bytes > Integer.MAX_VALUE) {
+                throw new IOException("Store would grow beyond 2 GB");
+            }
+            ByteBuffer record = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+            record.putLong(key.high).putLong(key.low).putInt(flags).putInt(numVariables).putInt(numVertices);
+            record.asLongBuffer().put(words);
+            record.position(record.position() + 8 * words.length);
+            if (componentOf != null) {
+                record.asIntBuffer().put(componentOf);
+            }
+            record.position(0);
+            writeFully(record, size);
+            offsets.put(key, size);
+            size += bytes;
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void remap() throws IOException {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        synchronized void close() throws IOException {
+            channel.force(true);
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package main;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.BitSet;
+
+/**
+ * A blocking connection to a {@link SolverServer}. Requests on one client are answered in order; open one client
+ * per thread to have several in flight. Not thread-safe.
+ */
+public class SolverClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(1 << 12).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * @param address the server's InetSocketAddress or UnixDomainSocketAddress
+     * @throws IOException if the connection fails
+     */
+    public SolverClient(SocketAddress address) throws IOException {
+        this.channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+        channel.connect(address);
+    }
+
+    /**
+     * @param instance the instance
+     * @return the assignment, where bit v is set if variable v is true, or null if unsatisfiable
+     * @throws IOException if the connection fails or the server rejects the request
+     */
+    public BitSet solve(TwoSATInstance instance) throws IOException {
+        SolverProtocol.writeRequest(channel, instance);
+        ByteBuffer payload = SolverProtocol.readFrame(channel, readBuffer);
+        if (payload == null) {
+            throw new IOException("Server closed the connection");
+        }
+        readBuffer = payload;
+        return SolverProtocol.decodeResponse(payload);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,67 @@
+package main;
+
+/**
+ * Receives events from the solvers. Every method does nothing by default, so a listener only overrides what
+ * it records. A solver running restarts concurrently calls its listener from several threads at once, so
+ * implementations must be thread-safe. Solvers skip work that only feeds the listener when it is {@link #NONE}.
+ */
+public interface SolverListener {
+
+    /**
+     * The listener that ignores every event, used when nothing is attached
+     */
+    SolverListener NONE = new SolverListener() {
+    };
+
+    /**
+     * An instance file was loaded
+     * @param nanos the time taken
+     */
+    default void parsed(long nanos) {
+    }
+
+    /**
+     * An implication graph was built
+     * @param nanos the time taken
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     */
+    default void graphBuilt(long nanos, int numVertices, int numEdges) {
+    }
+
+    /**
+     * A pass of a solver completed, such as a depth-first search of Kosaraju's algorithm, a Tarjan search or
+     * preprocessing
+     * @param pass the name of the pass
+     * @param nanos the time taken
+     */
+    default void passCompleted(String pass, long nanos) {
+    }
+
+    /**
+     * The strongly connected components of an implication graph were computed
+     * @param count the number of components found, which is fewer than all of them if the search stopped at
+     *              a conflict
+     * @param largest the number of vertices in the largest component found
+     */
+    default void componentsFound(int count, int largest) {
+    }
+
+    /**
+     * A restart of Papadimitriou's algorithm finished
+     * @param restart the index of the restart
+     * @param flips the number of flips it made
+     * @param satisfied true if it found a satisfying assignment
+     */
+    default void restartCompleted(int restart, long flips, boolean satisfied) {
+    }
+
+    /**
+     * A sample of the number of unsatisfied clauses during a random walk, taken every few thousand flips
+     * @param restart the index of the restart
+     * @param flip the number of flips made so far in the restart
+     * @param numUnsatisfied the number of unsatisfied clauses
+     */
+    default void unsatisfiedSampled(int restart, long flip, int numUnsatisfied) {
+    }
+}
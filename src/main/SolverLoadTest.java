@@ -0,0 +1,96 @@
+package main;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a {@link SolverServer} from many connections at once and reports throughput and latency percentiles.
+ * Each connection sends its requests back to back, so the number of connections is the number in flight.
+ * Usage: {@code SolverLoadTest <address|loopback> [connections] [requestsPerConnection] [numVariables]}, where
+ * {@code loopback} starts a server in this process on an ephemeral TCP port.
+ */
+public class SolverLoadTest {
+
+    private static final int NUM_INSTANCES = 256;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SolverLoadTest <address|loopback> [connections] [requestsPerConnection]"
+                    + " [numVariables]");
+            System.exit(1);
+        }
+        int numConnections = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requestsPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int numVariables = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        SolverServer server = null;
+        SocketAddress address;
+        if (args[0].equals("loopback")) {
+            server = new SolverServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    Runtime.getRuntime().availableProcessors());
+            server.start();
+            address = server.getAddress();
+        } else {
+            address = SolverProtocol.parseAddress(args[0]);
+        }
+
+        /* Generated up front so that the clients measure the server, not the generator */
+        TwoSATInstance[] instances = new TwoSATInstance[NUM_INSTANCES];
+        for (int i = 0; i < NUM_INSTANCES; i++) {
+            instances[i] = InstanceGenerator.random(numVariables, numVariables, i);
+        }
+
+        ExecutorService executor = BatchSolver.newVirtualThreadExecutor();
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < numConnections; c++) {
+                int connection = c;
+                futures.add(executor.submit(() -> run(address, instances, connection, requestsPerConnection)));
+            }
+            long[] latencies = new long[numConnections * requestsPerConnection];
+            int filled = 0;
+            for (Future<long[]> future : futures) {
+                long[] connectionLatencies = future.get();
+                System.arraycopy(connectionLatencies, 0, latencies, filled, connectionLatencies.length);
+                filled += connectionLatencies.length;
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            System.out.printf("%d requests over %d connections in %.2f s: %.0f requests/s%n", latencies.length,
+                    numConnections, elapsed / 1e9, latencies.length / (elapsed / 1e9));
+            System.out.printf("latency p50 %.1f us, p99 %.1f us, max %.1f us%n", percentile(latencies, 0.50) / 1e3,
+                    percentile(latencies, 0.99) / 1e3, latencies[latencies.length - 1] / 1e3);
+        } finally {
+            executor.shutdown();
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static long[] run(SocketAddress address, TwoSATInstance[] instances, int connection, int numRequests)
+            throws IOException {
+        long[] latencies = new long[numRequests];
+        try (SolverClient client = new SolverClient(address)) {
+            for (int i = 0; i < numRequests; i++) {
+                TwoSATInstance instance = instances[(connection + i) % instances.length];
+                long start = System.nanoTime();
+                client.solve(instance);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+}
@@ -0,0 +1,251 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener that keeps counters, timers and maxima in a registry and exports them as JSON. Updates go to
+ * {@link LongAdder}s and {@link LongAccumulator}s, so concurrent restarts record into it without contention.
+ * The unsatisfied-clause trajectory spans the whole run in a fixed number of samples: when the buffer fills,
+ * every other sample is dropped and from then on only every other one offered is kept, so the samples stay
+ * evenly spaced however long the walk.
+ */
+public class SolverMetrics implements SolverListener {
+
+    private static final int DEFAULT_MAX_SAMPLES = 1 << 14;
+
+    /**
+     * A timer accumulates how often and for how long something ran
+     */
+    private static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAccumulator> maxima = new ConcurrentHashMap<>();
+
+    /**
+     * The trajectory samples as (restart, flip, unsatisfied clauses) triples, guarded by this
+     */
+    private final int maxSamples;
+    private long[] samples = new long[3 * 64];
+    private int numSamples;
+    /**
+     * One sample in every stride offered is kept; a power of two, doubled each time the buffer fills
+     */
+    private long stride = 1;
+    private long numOffered;
+
+    public SolverMetrics() {
+        this(DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * @param maxSamples the number of unsatisfied-clause samples to keep, at least 2
+     */
+    public SolverMetrics(int maxSamples) {
+        if (maxSamples < 2) {
+            throw new IllegalArgumentException("At least 2 samples are needed to decimate: " + maxSamples);
+        }
+        this.maxSamples = maxSamples;
+    }
+
+    @Override
+    public void parsed(long nanos) {
+        record("parse", nanos);
+    }
+
+    @Override
+    public void graphBuilt(long nanos, int numVertices, int numEdges) {
+        record("graphBuild", nanos);
+        max("vertices", numVertices);
+        max("edges", numEdges);
+    }
+
+    @Override
+    public void passCompleted(String pass, long nanos) {
+        record(pass, nanos);
+    }
+
+    @Override
+    public void componentsFound(int count, int largest) {
+        increment("components", count);
+        max("largestComponent", largest);
+    }
+
+    @Override
+    public void restartCompleted(int restart, long flips, boolean satisfied) {
+        increment("restarts", 1);
+        increment("flips", flips);
+        if (satisfied) {
+            increment("satisfiedRestarts", 1);
+        }
+    }
+
+    @Override
+    public synchronized void unsatisfiedSampled(int restart, long flip, int numUnsatisfied) {
+        long offer = numOffered++;
+        if (offer % stride != 0) {
+            return;
+        }
+        if (numSamples == maxSamples) {
+            /* Keep the samples at even positions, i.e. every offer at a multiple of the doubled stride */
+            for (int i = 1; 2 * i < numSamples; i++) {
+                System.arraycopy(samples, 3 * (2 * i), samples, 3 * i, 3);
+            }
+            numSamples = (numSamples + 1) / 2;
+            stride *= 2;
+            if (offer % stride != 0) {
+                return;
+            }
+        }
+        if (3 * numSamples == samples.length) {
+            samples = Arrays.copyOf(samples, 2 * samples.length);
+        }
+        samples[3 * numSamples] = restart;
+        samples[3 * numSamples + 1] = flip;
+        samples[3 * numSamples + 2] = numUnsatisfied;
+        numSamples++;
+    }
+
+    /**
+     * Adds to a counter, creating it at 0 if needed
+     * @param name the counter
+     * @param delta the amount to add
+     */
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Records one run of a timer
+     * @param name the timer
+     * @param nanos the time taken
+     */
+    public void record(String name, long nanos) {
+        Timer timer = timers.computeIfAbsent(name, key -> new Timer());
+        timer.count.increment();
+        timer.totalNanos.add(nanos);
+        timer.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Raises a maximum to the given value if it is larger
+     * @param name the maximum
+     * @param value the value
+     */
+    public void max(String name, long value) {
+        maxima.computeIfAbsent(name, key -> new LongAccumulator(Math::max, Long.MIN_VALUE)).accumulate(value);
+    }
+
+    /**
+     * @return the counter's value, or 0 if it was never incremented
+     */
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return the number of runs recorded by the timer
+     */
+    public long getTimerCount(String name) {
+        Timer timer = timers.get(name);
+        return timer == null ? 0 : timer.count.sum();
+    }
+
+    /**
+     * @return the total time recorded by the timer
+     */
+    public long getTimerTotalNanos(String name) {
+        Timer timer = timers.get(name);
+        return timer == null ? 0 : timer.totalNanos.sum();
+    }
+
+    /**
+     * @return the maximum's value, or 0 if it was never set
+     */
+    public long getMax(String name) {
+        LongAccumulator maximum = maxima.get(name);
+        return maximum == null ? 0 : maximum.get();
+    }
+
+    /**
+     * @return the unsatisfied-clause samples kept, in the order received, each as {restart, flip, unsatisfied}
+     */
+    public synchronized long[][] getUnsatisfiedTrajectory() {
+        long[][] trajectory = new long[numSamples][];
+        for (int i = 0; i < numSamples; i++) {
+            trajectory[i] = Arrays.copyOfRange(samples, 3 * i, 3 * i + 3);
+        }
+        return trajectory;
+    }
+
+    /**
+     * Exports the registry, with names in sorted order:
+     * <pre>
+     * {"counters": {"flips": 1200, ...},
+     *  "timers": {"parse": {"count": 1, "totalNanos": 5310, "maxNanos": 5310}, ...},
+     *  "maxima": {"largestComponent": 4, ...},
+     *  "unsatisfiedTrajectory": [[0, 0, 17], [0, 4096, 3], ...]}
+     * </pre>
+     * @return the metrics as a JSON object
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"counters\": {");
+        String separator = "";
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            json.append(separator);
+            appendString(json, entry.getKey()).append(": ").append(entry.getValue().sum());
+            separator = ", ";
+        }
+        json.append("}, \"timers\": {");
+        separator = "";
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            json.append(separator);
+            appendString(json, entry.getKey())
+                    .append(": {\"count\": ").append(timer.count.sum())
+                    .append(", \"totalNanos\": ").append(timer.totalNanos.sum())
+                    .append(", \"maxNanos\": ").append(timer.maxNanos.get()).append('}');
+            separator = ", ";
+        }
+        json.append("}, \"maxima\": {");
+        separator = "";
+        for (Map.Entry<String, LongAccumulator> entry : new TreeMap<>(maxima).entrySet()) {
+            json.append(separator);
+            appendString(json, entry.getKey()).append(": ").append(entry.getValue().get());
+            separator = ", ";
+        }
+        json.append("}, \"unsatisfiedTrajectory\": [");
+        separator = "";
+        for (long[] sample : getUnsatisfiedTrajectory()) {
+            json.append(separator).append('[').append(sample[0]).append(", ").append(sample[1])
+                    .append(", ").append(sample[2]).append(']');
+            separator = ", ";
+        }
+        return json.append("]}").toString();
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,260 @@
+package main;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * The wire format of {@link SolverServer} and {@link SolverClient}. Every message is a frame: a little-endian
+ * int giving the length of the payload, then the payload.
+ * <pre>
+ *   request:  numVariables, numClauses, clause literals (2 * numClauses), all ints
+ *   response: status byte, then for SATISFIABLE the number of model words (int) and the words (longs) of the
+ *             model, bit v set if variable v is true; for ERROR the message in UTF-8
+ * </pre>
+ * A connection carries any number of requests, each answered before the next is read.
+ */
+public class SolverProtocol {
+
+    public static final byte UNSATISFIABLE = 0;
+    public static final byte SATISFIABLE = 1;
+    public static final byte ERROR = 2;
+
+    /**
+     * The largest payload of any frame. A server passes the lower limit implied by its clause limit, see
+     * {@link #requestPayloadBytes(int)}, to {@link #readFrame(ReadableByteChannel, ByteBuffer, int)}; the solver's
+     * vertex arrays grow with the number of variables instead, which a request states separately and which is
+     * checked by {@link #decodeRequest(ByteBuffer, int)}.
+     */
+    public static final int MAX_PAYLOAD_BYTES = 1 << 30;
+
+    /**
+     * Parses a socket address: {@code unix:/path/to/socket}, {@code tcp:host:port}, {@code host:port} or a
+     * bare port on the loopback interface
+     * @param address the address
+     * @return the socket address
+     */
+    public static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(address.substring("unix:".length())));
+        }
+        if (address.startsWith("tcp:")) {
+            address = address.substring("tcp:".length());
+        }
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * @param numClauses the number of clauses of a request
+     * @return the payload bytes of the request, capped at {@link #MAX_PAYLOAD_BYTES}
+     */
+    public static int requestPayloadBytes(int numClauses) {
+        return (int) Math.min(MAX_PAYLOAD_BYTES, 8 + 8L * numClauses);
+    }
+
+    /**
+     * Reads one frame into a reusable buffer, growing it if the payload does not fit
+     * @param channel the channel
+     * @param buffer the buffer to reuse, little-endian
+     * @return the buffer holding the payload between 0 and its limit, possibly a new larger one, or null if the
+     * channel ended cleanly before the frame
+     * @throws IOException if the channel fails or ends inside the frame, or the length is out of range
+     */
+    public static ByteBuffer readFrame(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        return readFrame(channel, buffer, MAX_PAYLOAD_BYTES);
+    }
+
+    /**
+     * Reads one frame into a reusable buffer, growing it if the payload does not fit. The length is checked
+     * before anything is allocated, so a peer cannot make this side allocate more than the limit.
+     * @param channel the channel
+     * @param buffer the buffer to reuse, little-endian
+     * @param maxPayloadBytes the largest payload accepted, at most {@link #MAX_PAYLOAD_BYTES}
+     * @return the buffer holding the payload between 0 and its limit, possibly a new larger one, or null if the
+     * channel ended cleanly before the frame
+     * @throws IOException if the channel fails or ends inside the frame, or the length is out of range
+     */
+    public static ByteBuffer readFrame(ReadableByteChannel channel, ByteBuffer buffer, int maxPayloadBytes)
+            throws IOException {
+        buffer.clear().limit(4);
+        if (!readFully(channel, buffer, true)) {
+            return null;
+        }
+        int length = buffer.getInt(0);
+        if (length < 0 || length > maxPayloadBytes) {
+            throw new IOException("Frame length out of range: " + length);
+        }
+        if (length > buffer.capacity()) {
+            buffer = ByteBuffer.allocate(Math.max(length, (int) Math.min(maxPayloadBytes, 2L * buffer.capacity())))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear().limit(length);
+        readFully(channel, buffer, false);
+        return buffer.flip();
+    }
+
+    /**
+     * @return false if the channel ended before the first byte and an end was allowed
+     */
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean endAllowed)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (endAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed inside a frame");
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes a request frame
+     * @param channel the channel
+     * @param instance the instance to solve
+     * @throws IOException if the channel fails
+     */
+    public static void writeRequest(WritableByteChannel channel, TwoSATInstance instance) throws IOException {
+        int numClauses = instance.getNumClauses();
+        if (8 + 8L * numClauses > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Instance too large for one request");
+        }
+        int payload = requestPayloadBytes(numClauses);
+        ByteBuffer frame = ByteBuffer.allocate(4 + payload).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(payload).putInt(instance.getNumVariables()).putInt(numClauses);
+        IntBuffer literals = instance.getClauseLiterals();
+        literals.limit(2 * numClauses);
+        frame.asIntBuffer().put(literals);
+        frame.clear();
+        writeFully(channel, frame);
+    }
+
+    /**
+     * Decodes a request payload into an instance that reads its clauses straight from the payload buffer
+     * @param payload the payload, as returned by {@link #readFrame}
+     * @param maxVariables the largest number of variables accepted
+     * @return the instance, valid until the buffer is reused
+     * @throws IllegalArgumentException if the payload is malformed, has too many variables or a literal is out
+     * of range
+     */
+    public static TwoSATInstance decodeRequest(ByteBuffer payload, int maxVariables) {
+        if (payload.limit() < 8) {
+            throw new IllegalArgumentException("Request shorter than its header");
+        }
+        int numVariables = payload.getInt(0);
+        int numClauses = payload.getInt(4);
+        if (numVariables < 0 || numClauses < 0 || payload.limit() != 8 + 8L * numClauses) {
+            throw new IllegalArgumentException("Malformed request header");
+        }
+        if (numVariables > maxVariables) {
+            throw new IllegalArgumentException("Request has " + numVariables + " variables, the limit is "
+                    + maxVariables);
+        }
+        IntBuffer literals = payload.slice(8, 8 * numClauses).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        for (int i = 0; i < 2 * numClauses; i++) {
+            int literal = literals.get(i);
+            if (literal == 0 || literal < -numVariables || literal > numVariables) {
+                throw new IllegalArgumentException("Literal out of range in clause " + i / 2);
+            }
+        }
+        return new TwoSATInstance(numVariables, literals, numClauses, null, null);
+    }
+
+    /**
+     * Writes a response frame
+     * @param channel the channel
+     * @param numVariables the number of variables of the instance
+     * @param assignment the model, or null if unsatisfiable
+     * @param scratch a buffer to reuse if large enough, little-endian
+     * @return the buffer used, possibly a new larger one
+     * @throws IOException if the channel fails
+     */
+    public static ByteBuffer writeResponse(WritableByteChannel channel, int numVariables, BitSet assignment,
+                                           ByteBuffer scratch) throws IOException {
+        if (assignment == null) {
+            scratch.clear();
+            scratch.putInt(1).put(UNSATISFIABLE).flip();
+            writeFully(channel, scratch);
+            return scratch;
+        }
+        int numWords = numVariables / 64 + 1;
+        int length = 1 + 4 + 8 * numWords;
+        if (4 + length > scratch.capacity()) {
+            scratch = ByteBuffer.allocate(4 + length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        scratch.clear();
+        scratch.putInt(length).put(SATISFIABLE).putInt(numWords);
+        long[] words = assignment.toLongArray();
+        for (int i = 0; i < numWords; i++) {
+            scratch.putLong(i < words.length ? words[i] : 0L);
+        }
+        writeFully(channel, scratch.flip());
+        return scratch;
+    }
+
+    /**
+     * Writes an error response frame
+     * @param channel the channel
+     * @param message the error message
+     * @throws IOException if the channel fails
+     */
+    public static void writeError(WritableByteChannel channel, String message) throws IOException {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(1 + bytes.length).put(ERROR).put(bytes).flip();
+        writeFully(channel, frame);
+    }
+
+    /**
+     * Decodes a response payload
+     * @param payload the payload, as returned by {@link #readFrame}
+     * @return the model, or null if unsatisfiable
+     * @throws IOException if the response is an error or malformed
+     */
+    public static BitSet decodeResponse(ByteBuffer payload) throws IOException {
+        if (payload.limit() < 1) {
+            throw new IOException("Empty response");
+        }
+        byte status = payload.get(0);
+        if (status == UNSATISFIABLE) {
+            return null;
+        }
+        if (status == ERROR) {
+            byte[] message = new byte[payload.limit() - 1];
+            payload.get(1, message);
+            throw new IOException("Server error: " + new String(message, StandardCharsets.UTF_8));
+        }
+        if (status != SATISFIABLE || payload.limit() < 5) {
+            throw new IOException("Malformed response");
+        }
+        int numWords = payload.getInt(1);
+        if (payload.limit() != 5 + 8L * numWords) {
+            throw new IOException("Malformed response");
+        }
+        long[] words = new long[numWords];
+        payload.slice(5, 8 * numWords).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+        return BitSet.valueOf(words);
+    }
+}
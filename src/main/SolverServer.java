@@ -0,0 +1,346 @@
+package main;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A long-running solver listening on a local TCP or Unix-domain socket, speaking {@link SolverProtocol}.
+ * Each connection is served on its own virtual thread (a platform thread on JVMs without them), which reads
+ * a request into a buffer it keeps for the connection and queues the decoded instance. A fixed set of worker
+ * threads takes instances off the queue, each with its own {@link PooledSolver}; a worker that finds several
+ * small instances waiting solves them together, up to {@link #BATCH_CLAUSES} clauses and {@link #BATCH_VERTICES}
+ * vertices, in one pass over their disjoint union. Batches therefore form only when requests queue up, and a lone
+ * request is never held back. Requests with more variables than the server's limit are refused before they are
+ * queued, and frames longer than a request with the clause limit close the connection before their payload is
+ * allocated. A worker or connection that grew its arrays for one large request lets them go afterwards.
+ * The JIT is warmed on generated instances before the socket is opened.
+ */
+public class SolverServer implements AutoCloseable {
+
+    /**
+     * The number of clauses a worker gathers into one batch before solving it
+     */
+    public static final int BATCH_CLAUSES = 1 << 16;
+    /**
+     * The number of graph vertices, twice the variables, a worker gathers into one batch before solving it
+     */
+    public static final int BATCH_VERTICES = 1 << 17;
+    /**
+     * The default limit on the variables of one request
+     */
+    public static final int DEFAULT_MAX_VARIABLES = 1 << 22;
+    /**
+     * The default limit on the clauses of one request, a payload of 64 MiB
+     */
+    public static final int DEFAULT_MAX_CLAUSES = 1 << 23;
+    /**
+     * The initial size of each connection's read and write buffers
+     */
+    private static final int CONNECTION_BUFFER_BYTES = 1 << 16;
+    /**
+     * The largest buffer a connection keeps between requests; a larger one serves its request only
+     */
+    private static final int RETAINED_BUFFER_BYTES = 1 << 20;
+    private static final int WARM_UP_ROUNDS = 2000;
+
+    /**
+     * A queued request and the future its connection waits on
+     */
+    private static class Pending {
+        private final TwoSATInstance instance;
+        private final CompletableFuture<BitSet> result = new CompletableFuture<>();
+
+        Pending(TwoSATInstance instance) {
+            this.instance = instance;
+        }
+    }
+
+    private final SocketAddress address;
+    private final ServerSocketChannel server;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ExecutorService connectionExecutor = BatchSolver.newVirtualThreadExecutor();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final int maxVariables;
+    private final int maxPayloadBytes;
+    private Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Warms up the solver and binds the socket, accepting up to {@link #DEFAULT_MAX_VARIABLES} variables and
+     * {@link #DEFAULT_MAX_CLAUSES} clauses per request; call {@link #start()} to begin serving
+     * @param address an InetSocketAddress, or a UnixDomainSocketAddress whose file must not exist yet
+     * @param numWorkers the number of threads solving requests
+     * @throws IOException if the socket cannot be bound
+     */
+    public SolverServer(SocketAddress address, int numWorkers) throws IOException {
+        this(address, numWorkers, DEFAULT_MAX_VARIABLES, DEFAULT_MAX_CLAUSES);
+    }
+
+    /**
+     * Warms up the solver and binds the socket, accepting up to {@link #DEFAULT_MAX_CLAUSES} clauses per
+     * request; call {@link #start()} to begin serving
+     * @param address an InetSocketAddress, or a UnixDomainSocketAddress whose file must not exist yet
+     * @param numWorkers the number of threads solving requests
+     * @param maxVariables the largest number of variables of a request
+     * @throws IOException if the socket cannot be bound
+     */
+    public SolverServer(SocketAddress address, int numWorkers, int maxVariables) throws IOException {
+        this(address, numWorkers, maxVariables, DEFAULT_MAX_CLAUSES);
+    }
+
+    /**
+     * Warms up the solver and binds the socket; call {@link #start()} to begin serving
+     * @param address an InetSocketAddress, or a UnixDomainSocketAddress whose file must not exist yet
+     * @param numWorkers the number of threads solving requests
+     * @param maxVariables the largest number of variables of a request, which bounds the vertex arrays of each
+     *                     worker to about 64 bytes per variable
+     * @param maxClauses the largest number of clauses of a request, which bounds each connection's read buffer
+     *                   to 8 bytes per clause and each worker's edge array to as many
+     * @throws IOException if the socket cannot be bound
+     */
+    public SolverServer(SocketAddress address, int numWorkers, int maxVariables, int maxClauses)
+            throws IOException {
+        if (maxVariables < 0 || maxVariables > (Integer.MAX_VALUE - 1) / 2) {
+            throw new IllegalArgumentException("Variable limit out of range: " + maxVariables);
+        }
+        if (maxClauses < 0 || 8 + 8L * maxClauses > SolverProtocol.MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Clause limit out of range: " + maxClauses);
+        }
+        this.maxVariables = maxVariables;
+        this.maxPayloadBytes = SolverProtocol.requestPayloadBytes(maxClauses);
+        warmUp();
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        server.bind(address);
+        this.address = server.getLocalAddress();
+        for (int i = 0; i < numWorkers; i++) {
+            Thread worker = new Thread(this::work, "solver-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Solves generated instances of a few sizes, batched and alone, so that the first requests run compiled code
+     */
+    private static void warmUp() {
+        PooledSolver solver = new PooledSolver();
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            int numVariables = 16 << (round % 8);
+            TwoSATInstance instance = InstanceGenerator.random(numVariables, numVariables, round);
+            if (round % 2 == 0) {
+                solver.solve(instance);
+            } else {
+                solver.solveAll(List.of(instance, InstanceGenerator.planted(numVariables, numVariables, round)));
+            }
+        }
+    }
+
+    /**
+     * Starts the workers and accepts connections on a background thread
+     */
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        acceptor = new Thread(this::accept, "solver-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the bound address, with the actual port if port 0 was requested
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                SocketChannel connection = server.accept();
+                connections.add(connection);
+                connectionExecutor.execute(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of one connection until it closes
+     */
+    private void serve(SocketChannel connection) {
+        ByteBuffer readBuffer = ByteBuffer.allocate(CONNECTION_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer writeBuffer = ByteBuffer.allocate(CONNECTION_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (connection) {
+            while (true) {
+                ByteBuffer payload = SolverProtocol.readFrame(connection, readBuffer, maxPayloadBytes);
+                if (payload == null) {
+                    return;
+                }
+                if (payload.capacity() <= RETAINED_BUFFER_BYTES) {
+                    readBuffer = payload;
+                }
+                TwoSATInstance instance;
+                try {
+                    instance = SolverProtocol.decodeRequest(payload, maxVariables);
+                } catch (IllegalArgumentException e) {
+                    SolverProtocol.writeError(connection, e.getMessage());
+                    continue;
+                }
+                Pending pending = new Pending(instance);
+                queue.add(pending);
+                if (closed) {
+                    /* close() may have drained the queue already, and no worker would take this one */
+                    pending.result.completeExceptionally(new IllegalStateException("Server closed"));
+                }
+                BitSet assignment;
+                try {
+                    assignment = pending.result.join();
+                } catch (RuntimeException e) {
+                    SolverProtocol.writeError(connection, String.valueOf(e.getCause()));
+                    continue;
+                }
+                ByteBuffer written = SolverProtocol.writeResponse(connection, instance.getNumVariables(), assignment,
+                        writeBuffer);
+                if (written.capacity() <= RETAINED_BUFFER_BYTES) {
+                    writeBuffer = written;
+                }
+            }
+        } catch (IOException e) {
+            /* The client went away or sent a bad frame; drop the connection */
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * A worker's loop: take a request, gather whatever small requests are queued behind it, solve them together.
+     * A request that would take the batch past either limit is carried over to start the next one.
+     */
+    private void work() {
+        PooledSolver solver = new PooledSolver();
+        List<Pending> batch = new ArrayList<>();
+        List<TwoSATInstance> instances = new ArrayList<>();
+        Pending carried = null;
+        while (!closed) {
+            try {
+                Pending first = carried != null ? carried : queue.take();
+                carried = null;
+                batch.add(first);
+                long clauses = first.instance.getNumClauses();
+                long vertices = 2L * first.instance.getNumVariables();
+                Pending next;
+                while (clauses < BATCH_CLAUSES && vertices < BATCH_VERTICES && (next = queue.poll()) != null) {
+                    if (clauses + next.instance.getNumClauses() > BATCH_CLAUSES
+                            || vertices + 2L * next.instance.getNumVariables() > BATCH_VERTICES) {
+                        carried = next;
+                        break;
+                    }
+                    batch.add(next);
+                    clauses += next.instance.getNumClauses();
+                    vertices += 2L * next.instance.getNumVariables();
+                }
+                for (Pending pending : batch) {
+                    instances.add(pending.instance);
+                }
+                try {
+                    BitSet[] assignments = solver.solveAll(instances);
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).result.complete(assignments[i]);
+                    }
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    for (Pending pending : batch) {
+                        pending.result.completeExceptionally(e);
+                    }
+                    if (e instanceof OutOfMemoryError) {
+                        solver = new PooledSolver();
+                    }
+                }
+                /* Batches stay within the caps, so arrays grown past twice them were grown for one large request */
+                solver.trim(2 * BATCH_VERTICES, 4 * BATCH_CLAUSES);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                batch.clear();
+                instances.clear();
+            }
+        }
+        if (carried != null) {
+            carried.result.completeExceptionally(new IllegalStateException("Server closed"));
+        }
+    }
+
+    /**
+     * Stops accepting, closes every connection and stops the workers
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (SocketChannel connection : connections) {
+            connection.close();
+        }
+        connectionExecutor.shutdownNow();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Server closed"));
+        }
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * Serves until the process is killed.
+     * Usage: {@code SolverServer <unix:path|tcp:host:port|port> [workers] [maxVariables] [maxClauses]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: SolverServer <unix:path|tcp:host:port|port> [workers] [maxVariables]"
+                    + " [maxClauses]");
+            System.exit(1);
+        }
+        int numWorkers = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        int maxVariables = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_VARIABLES;
+        int maxClauses = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_CLAUSES;
+        SolverServer server = new SolverServer(SolverProtocol.parseAddress(args[0]), numWorkers, maxVariables,
+                maxClauses);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        server.start();
+        System.out.println("Listening on " + server.getAddress());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,130 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass strongly connected component search over an {@link ImplicationGraph} using Tarjan's algorithm.
+ * The depth-first search keeps its own call stack in int arrays instead of recursing, so it works on
+ * implication chains of any length without raising the thread stack size.
+ * Satisfiability is checked as each component closes, by comparing the component of every member with
+ * the component of its negation.
+ */
+public class TarjanSCC {
+
+    /**
+     * Computes the SCCs of the implication graph, stopping at the first component that contains a literal
+     * together with its negation
+     * @param graph the implication graph
+     * @return the components found, with the conflicting vertex if the instance is unsatisfiable
+     */
+    public static SCCResult compute(ImplicationGraph graph) {
+        return compute(graph, true);
+    }
+
+    /**
+     * Computes the SCCs of the implication graph
+     * @param graph the implication graph
+     * @param stopAtConflict true to return as soon as a literal and its negation land in the same component,
+     *                       false to always label every vertex
+     * @return the components found, with the conflicting vertex if the instance is unsatisfiable
+     */
+    public static SCCResult compute(ImplicationGraph graph, boolean stopAtConflict) {
+        int numVertices = graph.getNumVertices();
+        int[] componentOf = new int[numVertices];
+        long outcome = search(numVertices, graph.getOffsets(), graph.getTargets(), stopAtConflict, componentOf,
+                new int[numVertices], new int[numVertices], new int[numVertices], new int[numVertices],
+                new int[numVertices]);
+        return new SCCResult(componentOf, (int) (outcome >>> 32), (int) outcome);
+    }
+
+    /**
+     * The search itself, over arrays supplied by the caller so that a solver handling many instances can reuse
+     * them. Every array must hold at least numVertices entries; only that prefix is read or written.
+     * @param numVertices the number of vertices
+     * @param offsets the out-edge offsets of the CSR graph
+     * @param targets the out-edge targets of the CSR graph
+     * @param stopAtConflict true to return at the first component holding a literal and its negation
+     * @param componentOf receives the component of each vertex, -1 for vertices not reached
+     * @param index scratch, the DFS discovery index of each vertex
+     * @param lowLink scratch
+     * @param stack scratch, the Tarjan stack
+     * @param callVertex scratch, the vertex of each DFS frame
+     * @param callEdge scratch, the next out-edge of each DFS frame
+     * @return the number of components closed in the high 32 bits, and the conflicting vertex or -1 in the low 32
+     */
+    static long search(int numVertices, int[] offsets, int[] targets, boolean stopAtConflict, int[] componentOf,
+                       int[] index, int[] lowLink, int[] stack, int[] callVertex, int[] callEdge) {
+        /* DFS discovery index of each vertex, -1 while undiscovered */
+        Arrays.fill(index, 0, numVertices, -1);
+        /* Component of each vertex, -1 while the vertex is unvisited or still on the Tarjan stack */
+        Arrays.fill(componentOf, 0, numVertices, -1);
+
+        /* The Tarjan stack of visited vertices whose component is still open */
+        int stackSize = 0;
+        /* The explicit DFS call stack: the vertex of each frame and the next out-edge it will follow */
+        int callSize = 0;
+
+        int nextIndex = 0;
+        int componentCount = 0;
+        int conflictVertex = -1;
+
+        for (int root = 0; root < numVertices; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            callVertex[callSize] = root;
+            callEdge[callSize++] = offsets[root];
+
+            while (callSize > 0) {
+                int v = callVertex[callSize - 1];
+                int e = callEdge[callSize - 1];
+                if (e < offsets[v + 1]) {
+                    callEdge[callSize - 1] = e + 1;
+                    int w = targets[e];
+                    if (index[w] == -1) {
+                        /* Descend into w */
+                        index[w] = lowLink[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        callVertex[callSize] = w;
+                        callEdge[callSize++] = offsets[w];
+                    } else if (componentOf[w] == -1 && index[w] < lowLink[v]) {
+                        /* w is still on the Tarjan stack */
+                        lowLink[v] = index[w];
+                    }
+                    continue;
+                }
+
+                /* All edges of v explored, return from its frame */
+                callSize--;
+                if (lowLink[v] == index[v]) {
+                    /* v is the root of a component, pop its members */
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        componentOf[w] = componentCount;
+                        if (conflictVertex == -1 && componentOf[ImplicationGraph.negate(w)] == componentCount) {
+                            conflictVertex = w;
+                        }
+                    } while (w != v);
+                    componentCount++;
+                    if (conflictVertex != -1 && stopAtConflict) {
+                        return outcome(componentCount, conflictVertex);
+                    }
+                }
+                if (callSize > 0) {
+                    int parent = callVertex[callSize - 1];
+                    if (lowLink[v] < lowLink[parent]) {
+                        lowLink[parent] = lowLink[v];
+                    }
+                }
+            }
+        }
+        return outcome(componentCount, conflictVertex);
+    }
+
+    private static long outcome(int componentCount, int conflictVertex) {
+        return ((long) componentCount << 32) | (conflictVertex & 0xffffffffL);
+    }
+}
@@ -0,0 +1,117 @@
+package main;
+
+import java.nio.IntBuffer;
+import java.util.BitSet;
+
+/**
+ * A 2-SAT instance held in primitive buffers: the number of variables and the clauses packed as pairs of
+ * literals, using the same signed literal convention as the data files. The clause buffer is either a
+ * heap array or a view over a memory-mapped binary file, in which case nothing is copied onto the heap.
+ */
+public class TwoSATInstance {
+
+    /**
+     * The number of variables, numbered 1 to numVariables
+     */
+    private final int numVariables;
+    /**
+     * The number of clauses
+     */
+    private final int numClauses;
+    /**
+     * Clause i is (clauseLiterals.get(2 * i) OR clauseLiterals.get(2 * i + 1))
+     */
+    private final IntBuffer clauseLiterals;
+    /**
+     * Precomputed CSR offsets of the implication graph, or null if they have to be counted
+     */
+    private final IntBuffer offsets;
+    private final IntBuffer reverseOffsets;
+
+    public TwoSATInstance(int numVariables, int[] clauseLiterals, int numClauses) {
+        this(numVariables, IntBuffer.wrap(clauseLiterals, 0, 2 * numClauses), numClauses, null, null);
+    }
+
+    /**
+     * @param numVariables the number of variables
+     * @param clauseLiterals the clauses packed as pairs, indexed from position 0
+     * @param numClauses the number of clauses
+     * @param offsets the out-edge offsets of the implication graph (2 * numVariables + 1 entries), or null
+     * @param reverseOffsets the in-edge offsets of the implication graph, or null
+     */
+    public TwoSATInstance(int numVariables, IntBuffer clauseLiterals, int numClauses,
+                          IntBuffer offsets, IntBuffer reverseOffsets) {
+        this.numVariables = numVariables;
+        this.clauseLiterals = clauseLiterals;
+        this.numClauses = numClauses;
+        this.offsets = offsets;
+        this.reverseOffsets = reverseOffsets;
+    }
+
+    public int getNumVariables() {
+        return numVariables;
+    }
+
+    public int getNumClauses() {
+        return numClauses;
+    }
+
+    public IntBuffer getClauseLiterals() {
+        return clauseLiterals.duplicate();
+    }
+
+    public int getFirstLiteral(int clause) {
+        return clauseLiterals.get(2 * clause);
+    }
+
+    public int getSecondLiteral(int clause) {
+        return clauseLiterals.get(2 * clause + 1);
+    }
+
+    /**
+     * Counts the clauses an assignment leaves unsatisfied, in one pass over the clauses
+     * @param assignment bit v set if variable v is true
+     * @return the number of clauses with both literals false
+     */
+    public int countUnsatisfied(BitSet assignment) {
+        int unsatisfied = 0;
+        for (int i = 0; i < numClauses; i++) {
+            int first = getFirstLiteral(i);
+            int second = getSecondLiteral(i);
+            if (assignment.get(Math.abs(first)) != first > 0 && assignment.get(Math.abs(second)) != second > 0) {
+                unsatisfied++;
+            }
+        }
+        return unsatisfied;
+    }
+
+    /**
+     * @param assignment bit v set if variable v is true
+     * @return true if the assignment satisfies every clause
+     */
+    public boolean isSatisfiedBy(BitSet assignment) {
+        for (int i = 0; i < numClauses; i++) {
+            int first = getFirstLiteral(i);
+            int second = getSecondLiteral(i);
+            if (assignment.get(Math.abs(first)) != first > 0 && assignment.get(Math.abs(second)) != second > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the CSR offsets of the implication graph were stored with the instance
+     */
+    public boolean hasOffsets() {
+        return offsets != null && reverseOffsets != null;
+    }
+
+    public IntBuffer getOffsets() {
+        return offsets == null ? null : offsets.duplicate();
+    }
+
+    public IntBuffer getReverseOffsets() {
+        return reverseOffsets == null ? null : reverseOffsets.duplicate();
+    }
+}
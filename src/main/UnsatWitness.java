@@ -0,0 +1,141 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Explains why a 2-SAT instance is unsatisfiable. When a literal x shares a component with NOT x, the
+ * component holds a path x => NOT x and a path NOT x => x. Each edge NOT a -> b on them is the clause (a OR b),
+ * so the clauses of the first path resolve, in order, to the unit clause NOT x, those of the second to x, and
+ * the two units to the empty clause. Both paths are shortest paths found by a breadth-first search that never
+ * leaves the conflicting component, so past allocating its int arrays the cost is bounded by the component's
+ * vertices and out-edges, however large the rest of the graph.
+ */
+public class UnsatWitness {
+
+    /**
+     * The literal whose component also holds its negation
+     */
+    private final int literal;
+    /**
+     * The clauses of the path literal => NOT literal, then those of NOT literal => literal
+     */
+    private final List<Clause> clauses;
+    /**
+     * The number of clauses on the first path
+     */
+    private final int firstPathLength;
+
+    private UnsatWitness(int literal, List<Clause> clauses, int firstPathLength) {
+        this.literal = literal;
+        this.clauses = clauses;
+        this.firstPathLength = firstPathLength;
+    }
+
+    /**
+     * Finds a witness in the graph of an instance, with one Tarjan pass that stops at the first conflict
+     * @param instance the instance, as loaded; a preprocessed instance would yield clauses of the reduction
+     * @return the witness, or null if the instance is satisfiable
+     */
+    public static UnsatWitness find(TwoSATInstance instance) {
+        ImplicationGraph graph = ImplicationGraph.build(instance);
+        return extract(graph, TarjanSCC.compute(graph));
+    }
+
+    /**
+     * Extracts a witness from components already computed. Only the conflicting component needs to be labelled,
+     * which holds for a search stopped at the conflict.
+     * @param graph the implication graph
+     * @param components its components
+     * @return the witness, or null if the components show no conflict
+     */
+    public static UnsatWitness extract(ImplicationGraph graph, SCCResult components) {
+        int conflictVertex = components.getConflictVertex();
+        if (conflictVertex == -1) {
+            return null;
+        }
+        int negated = ImplicationGraph.negate(conflictVertex);
+        int numVertices = graph.getNumVertices();
+        /* Fresh arrays read as zero, so the two searches mark with epochs 1 and 2 */
+        int[] mark = new int[numVertices];
+        int[] parent = new int[numVertices];
+        int[] queue = new int[numVertices];
+        int[] componentOf = components.getComponentOf();
+        List<Clause> clauses = path(graph, componentOf, conflictVertex, negated, mark, 1, parent, queue);
+        int firstPathLength = clauses.size();
+        clauses.addAll(path(graph, componentOf, negated, conflictVertex, mark, 2, parent, queue));
+        return new UnsatWitness(ImplicationGraph.literalOf(conflictVertex), Collections.unmodifiableList(clauses),
+                firstPathLength);
+    }
+
+    /**
+     * Breadth-first search from one vertex to another within their shared component. The arrays are shared by
+     * the two searches of a witness: a vertex counts as reached when its mark equals the search's epoch, so
+     * neither search clears anything and only the vertices it reaches are touched.
+     * @return the clauses behind the edges of a shortest path, in path order
+     */
+    private static List<Clause> path(ImplicationGraph graph, int[] componentOf, int source, int target,
+                                     int[] mark, int epoch, int[] parent, int[] queue) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int component = componentOf[source];
+        int head = 0;
+        int tail = 0;
+        mark[source] = epoch;
+        queue[tail++] = source;
+        while (head < tail && mark[target] != epoch) {
+            int v = queue[head++];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (componentOf[w] == component && mark[w] != epoch) {
+                    mark[w] = epoch;
+                    parent[w] = v;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        if (mark[target] != epoch) {
+            throw new IllegalStateException("Vertices " + source + " and " + target + " are not strongly connected");
+        }
+        List<Clause> clauses = new ArrayList<>();
+        for (int w = target; w != source; w = parent[w]) {
+            int v = parent[w];
+            /* The edge v -> w comes from the clause (NOT v OR w) */
+            clauses.add(new Clause(ImplicationGraph.literalOf(ImplicationGraph.negate(v)),
+                    ImplicationGraph.literalOf(w)));
+        }
+        Collections.reverse(clauses);
+        return clauses;
+    }
+
+    /**
+     * @return the literal x such that x => NOT x and NOT x => x
+     */
+    public int getLiteral() {
+        return literal;
+    }
+
+    /**
+     * The clauses of the proof: first those of the path x => NOT x, then those of NOT x => x, each path in
+     * order. A clause's literals may be listed in the other order than in the input.
+     * @return the clauses, each at most once per path
+     */
+    public List<Clause> getClauses() {
+        return clauses;
+    }
+
+    /**
+     * @return the clauses of the path x => NOT x, which resolve to the unit clause NOT x
+     */
+    public List<Clause> getFirstPath() {
+        return clauses.subList(0, firstPathLength);
+    }
+
+    /**
+     * @return the clauses of the path NOT x => x, which resolve to the unit clause x
+     */
+    public List<Clause> getSecondPath() {
+        return clauses.subList(firstPathLength, clauses.size());
+    }
+}
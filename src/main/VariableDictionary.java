@@ -0,0 +1,296 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Maps arbitrary variable keys, either 64-bit ids or string names, onto the dense variables 1 to n the
+ * solvers work with. Keys are numbered in the order they are first seen. Lookups go through a primitive
+ * open-addressing table with linear probing that stores only the dense ids, so a long key costs no boxing
+ * and a name is kept once, in the array of names indexed by id.
+ * A dictionary holds keys of one kind only, fixed when it is created.
+ */
+public class VariableDictionary {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * True if the keys are names, false if they are 64-bit ids
+     */
+    private final boolean named;
+    /**
+     * The open-addressing table: each slot holds a dense id, or 0 if it is empty. Its length is a power
+     * of two, kept at least twice the number of keys.
+     */
+    private int[] slots;
+    /**
+     * The key of each dense id, index 0 unused; only the array matching the kind of key is allocated
+     */
+    private long[] keys;
+    private String[] names;
+    /**
+     * The number of keys, which is also the highest dense id
+     */
+    private int size;
+
+    private VariableDictionary(boolean named, int expectedKeys) {
+        this.named = named;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2L * expectedKeys && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity];
+        if (named) {
+            names = new String[Math.max(expectedKeys, INITIAL_CAPACITY) + 1];
+        } else {
+            keys = new long[Math.max(expectedKeys, INITIAL_CAPACITY) + 1];
+        }
+    }
+
+    /**
+     * @param expectedKeys the number of distinct keys expected, to size the table up front
+     * @return an empty dictionary of 64-bit ids
+     */
+    public static VariableDictionary forKeys(int expectedKeys) {
+        return new VariableDictionary(false, expectedKeys);
+    }
+
+    /**
+     * @param expectedKeys the number of distinct names expected, to size the table up front
+     * @return an empty dictionary of string names
+     */
+    public static VariableDictionary forNames(int expectedKeys) {
+        return new VariableDictionary(true, expectedKeys);
+    }
+
+    /**
+     * Gets the dense variable of a key, numbering it if it is new
+     * @param key the 64-bit id
+     * @return the variable, 1-based
+     */
+    public int idOf(long key) {
+        requireKind(false);
+        int mask = slots.length - 1;
+        int slot = (int) mix(key) & mask;
+        int id;
+        while ((id = slots[slot]) != 0) {
+            if (keys[id] == key) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        id = ++size;
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length + keys.length / 2);
+        }
+        keys[id] = key;
+        slots[slot] = id;
+        growIfFull();
+        return id;
+    }
+
+    /**
+     * Gets the dense variable of a name, numbering it if it is new
+     * @param name the name
+     * @return the variable, 1-based
+     */
+    public int idOf(String name) {
+        requireKind(true);
+        int mask = slots.length - 1;
+        int slot = (int) mix(name.hashCode()) & mask;
+        int id;
+        while ((id = slots[slot]) != 0) {
+            if (names[id].equals(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        id = ++size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length + names.length / 2);
+        }
+        names[id] = name;
+        slots[slot] = id;
+        growIfFull();
+        return id;
+    }
+
+    /**
+     * Gets the dense variable of a key without numbering it
+     * @param key the 64-bit id
+     * @return the variable, or 0 if the key has not been seen
+     */
+    public int find(long key) {
+        requireKind(false);
+        int mask = slots.length - 1;
+        int id;
+        for (int slot = (int) mix(key) & mask; (id = slots[slot]) != 0; slot = (slot + 1) & mask) {
+            if (keys[id] == key) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the dense variable of a name without numbering it
+     * @param name the name
+     * @return the variable, or 0 if the name has not been seen
+     */
+    public int find(String name) {
+        requireKind(true);
+        int mask = slots.length - 1;
+        int id;
+        for (int slot = (int) mix(name.hashCode()) & mask; (id = slots[slot]) != 0; slot = (slot + 1) & mask) {
+            if (names[id].equals(name)) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the signed literal of a key, numbering the key if it is new
+     * @param key the 64-bit id
+     * @param negated true for the negation of the variable
+     * @return the literal in the signed convention of the data files
+     */
+    public int literalOf(long key, boolean negated) {
+        int variable = idOf(key);
+        return negated ? -variable : variable;
+    }
+
+    /**
+     * Gets the signed literal of a name, numbering the name if it is new
+     * @param name the name
+     * @param negated true for the negation of the variable
+     * @return the literal in the signed convention of the data files
+     */
+    public int literalOf(String name, boolean negated) {
+        int variable = idOf(name);
+        return negated ? -variable : variable;
+    }
+
+    /**
+     * @param variable a dense variable, 1-based
+     * @return its 64-bit id
+     */
+    public long getKey(int variable) {
+        requireKind(false);
+        return keys[variable];
+    }
+
+    /**
+     * @param variable a dense variable, 1-based
+     * @return its name
+     */
+    public String getName(int variable) {
+        requireKind(true);
+        return names[variable];
+    }
+
+    /**
+     * Looks up the value of a key in an assignment of the dense variables
+     * @param assignment bit v set if dense variable v is true
+     * @param key the 64-bit id
+     * @return the value of the key, false for a key that occurs in no clause
+     */
+    public boolean isTrue(BitSet assignment, long key) {
+        int variable = find(key);
+        return variable != 0 && assignment.get(variable);
+    }
+
+    /**
+     * Looks up the value of a name in an assignment of the dense variables
+     * @param assignment bit v set if dense variable v is true
+     * @param name the name
+     * @return the value of the name, false for a name that occurs in no clause
+     */
+    public boolean isTrue(BitSet assignment, String name) {
+        int variable = find(name);
+        return variable != 0 && assignment.get(variable);
+    }
+
+    /**
+     * Translates an assignment of the dense variables back to 64-bit ids
+     * @param assignment bit v set if dense variable v is true
+     * @return the ids of the true variables, in dense order
+     */
+    public long[] trueKeys(BitSet assignment) {
+        requireKind(false);
+        long[] trueKeys = new long[assignment.get(1, size + 1).cardinality()];
+        int i = 0;
+        for (int v = assignment.nextSetBit(1); v >= 0 && v <= size; v = assignment.nextSetBit(v + 1)) {
+            trueKeys[i++] = keys[v];
+        }
+        return trueKeys;
+    }
+
+    /**
+     * Translates an assignment of the dense variables back to names
+     * @param assignment bit v set if dense variable v is true
+     * @return the names of the true variables, in dense order
+     */
+    public List<String> trueNames(BitSet assignment) {
+        requireKind(true);
+        List<String> trueNames = new ArrayList<>();
+        for (int v = assignment.nextSetBit(1); v >= 0 && v <= size; v = assignment.nextSetBit(v + 1)) {
+            trueNames.add(names[v]);
+        }
+        return trueNames;
+    }
+
+    /**
+     * @return true if the keys are names, false if they are 64-bit ids
+     */
+    public boolean isNamed() {
+        return named;
+    }
+
+    /**
+     * @return the number of distinct keys, which is the number of variables of the dense instance
+     */
+    public int size() {
+        return size;
+    }
+
+    private void requireKind(boolean named) {
+        if (this.named != named) {
+            throw new IllegalStateException(this.named ? "Dictionary of names used with a 64-bit key"
+                    : "Dictionary of 64-bit keys used with a name");
+        }
+    }
+
+    /**
+     * Doubles the table once it is half full and reinserts every id
+     */
+    private void growIfFull() {
+        if (2 * size < slots.length) {
+            return;
+        }
+        int[] grown = new int[slots.length << 1];
+        int mask = grown.length - 1;
+        for (int id = 1; id <= size; id++) {
+            int slot = (int) (named ? mix(names[id].hashCode()) : mix(keys[id])) & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id;
+        }
+        slots = grown;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads sequential and strided ids over the table
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
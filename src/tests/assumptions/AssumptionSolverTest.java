@@ -0,0 +1,122 @@
+package tests.assumptions;
+
+import main.AssumptionSolver;
+import main.InstanceGenerator;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssumptionSolverTest {
+
+    @Test
+    void testAssumptionsOnFile() throws IOException {
+        AssumptionSolver solver = AssumptionSolver.load(
+                new File(System.getProperty("user.dir") + "/src/tests/scc/test1.txt"));
+        assertEquals(new SCCTwoSAT().computeSatisfiability(
+                new File(System.getProperty("user.dir") + "/src/tests/scc/test1.txt")), solver.isSatisfiable());
+        assertThrows(IOException.class, () -> AssumptionSolver.load(new File("does-not-exist.txt")));
+    }
+
+    @Test
+    void testContradictoryAssumptions() {
+        /* 1 implies 2 */
+        AssumptionSolver solver = new AssumptionSolver(new TwoSATInstance(2, new int[]{-1, 2}, 1));
+        assertTrue(solver.isSatisfiable(1));
+        assertFalse(solver.isSatisfiable(1, -2));
+        assertFalse(solver.isSatisfiable(2, -2));
+        BitSet model = solver.solve(1);
+        assertTrue(model.get(1));
+        assertTrue(model.get(2));
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(3));
+    }
+
+    @Test
+    void testAgreesWithUnitClauses() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 100; trial++) {
+            int numVariables = 5 + random.nextInt(40);
+            TwoSATInstance instance = InstanceGenerator.random(numVariables, numVariables, trial);
+            AssumptionSolver solver = new AssumptionSolver(instance);
+            for (int query = 0; query < 20; query++) {
+                int[] assumptions = randomLiterals(random, numVariables, 1 + random.nextInt(4));
+                BitSet model = solver.solve(assumptions);
+                assertEquals(isSatisfiableWithUnits(instance, assumptions), model != null);
+                if (model != null) {
+                    assertTrue(satisfies(instance, assumptions, model));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentQueries() throws Exception {
+        TwoSATInstance instance = InstanceGenerator.planted(20000, 30000, 4);
+        AssumptionSolver solver = new AssumptionSolver(instance);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int query = 0; query < 500; query++) {
+                        int[] assumptions = randomLiterals(random, 20000, 3);
+                        BitSet model = solver.solve(assumptions);
+                        if (model != null && !satisfies(instance, assumptions, model)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int[] randomLiterals(Random random, int numVariables, int count) {
+        int[] literals = new int[count];
+        for (int i = 0; i < count; i++) {
+            literals[i] = (1 + random.nextInt(numVariables)) * (random.nextBoolean() ? 1 : -1);
+        }
+        return literals;
+    }
+
+    private static boolean isSatisfiableWithUnits(TwoSATInstance instance, int[] assumptions) {
+        int numClauses = instance.getNumClauses() + assumptions.length;
+        int[] literals = new int[2 * numClauses];
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            literals[2 * i] = instance.getFirstLiteral(i);
+            literals[2 * i + 1] = instance.getSecondLiteral(i);
+        }
+        for (int i = 0; i < assumptions.length; i++) {
+            literals[2 * (instance.getNumClauses() + i)] = assumptions[i];
+            literals[2 * (instance.getNumClauses() + i) + 1] = assumptions[i];
+        }
+        return new SCCTwoSAT().solve(new TwoSATInstance(instance.getNumVariables(), literals, numClauses)) != null;
+    }
+
+    private static boolean satisfies(TwoSATInstance instance, int[] assumptions, BitSet model) {
+        for (int literal : assumptions) {
+            if (model.get(Math.abs(literal)) != literal > 0) {
+                return false;
+            }
+        }
+        return instance.isSatisfiedBy(model);
+    }
+}
@@ -0,0 +1,107 @@
+package tests.backbone;
+
+import main.BackboneAnalysis;
+import main.Condensation;
+import main.ImplicationGraph;
+import main.InstanceGenerator;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackboneAnalysisTest {
+
+    @Test
+    void testChainForcesItsEnd() {
+        /* -1 -> 2 -> 3 and 1 -> 3, so 3 holds either way */
+        TwoSATInstance instance = new TwoSATInstance(3, new int[]{1, 2, -2, 3, -1, 3}, 3);
+        BackboneAnalysis backbone = BackboneAnalysis.compute(ImplicationGraph.build(instance));
+        assertNotNull(backbone);
+        assertArrayEquals(new int[]{3}, backbone.getBackbone());
+        assertTrue(backbone.isForced(3));
+        assertFalse(backbone.isForced(-3));
+        assertFalse(backbone.isForced(1));
+        assertFalse(backbone.isForced(-1));
+    }
+
+    @Test
+    void testUnsatisfiable() {
+        TwoSATInstance instance = new TwoSATInstance(1, new int[]{1, 1, -1, -1}, 2);
+        assertNull(BackboneAnalysis.compute(ImplicationGraph.build(instance)));
+    }
+
+    @Test
+    void testFromFile() {
+        SCCTwoSAT solver = new SCCTwoSAT();
+        assertNotNull(solver.computeBackbone(new File(System.getProperty("user.dir") + "/src/tests/papa/test1.txt")));
+        assertNull(solver.computeBackbone(new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt")));
+        assertThrows(UncheckedIOException.class, () -> solver.computeBackbone(new File("does-not-exist.txt")));
+    }
+
+    @Test
+    void testCondensationEdgesGoDownward() {
+        ImplicationGraph graph = ImplicationGraph.build(InstanceGenerator.clusters(2000, 50, 2, 5));
+        Condensation condensation = Condensation.build(graph);
+        int[] offsets = condensation.getOffsets();
+        int[] targets = condensation.getTargets();
+        for (int c = 0; c < condensation.getComponentCount(); c++) {
+            assertEquals(c, condensation.getNegatedComponent(condensation.getNegatedComponent(c)));
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                assertTrue(targets[e] < c);
+            }
+        }
+        /* Each cluster and its negation collapse into one component each */
+        assertEquals(80, condensation.getComponentCount());
+    }
+
+    @Test
+    void testAgreesWithBruteForce() {
+        for (int seed = 0; seed < 300; seed++) {
+            int numVariables = 1 + seed % 10;
+            TwoSATInstance instance = InstanceGenerator.random(numVariables, numVariables + seed % 7, seed);
+            BackboneAnalysis backbone = BackboneAnalysis.compute(ImplicationGraph.build(instance));
+
+            /* A literal is forced if it holds in every model and there is at least one model */
+            boolean[] trueInAll = new boolean[numVariables + 1];
+            boolean[] falseInAll = new boolean[numVariables + 1];
+            Arrays.fill(trueInAll, true);
+            Arrays.fill(falseInAll, true);
+            boolean anyModel = false;
+            for (int bits = 0; bits < 1 << numVariables; bits++) {
+                if (satisfies(instance, bits)) {
+                    anyModel = true;
+                    for (int v = 1; v <= numVariables; v++) {
+                        boolean value = (bits >> (v - 1) & 1) != 0;
+                        trueInAll[v] &= value;
+                        falseInAll[v] &= !value;
+                    }
+                }
+            }
+            assertEquals(anyModel, backbone != null);
+            if (backbone != null) {
+                for (int v = 1; v <= numVariables; v++) {
+                    assertEquals(trueInAll[v], backbone.isForced(v), "seed " + seed + " literal " + v);
+                    assertEquals(falseInAll[v], backbone.isForced(-v), "seed " + seed + " literal " + -v);
+                }
+            }
+        }
+    }
+
+    private static boolean satisfies(TwoSATInstance instance, int bits) {
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            if (!isTrue(instance.getFirstLiteral(i), bits) && !isTrue(instance.getSecondLiteral(i), bits)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTrue(int literal, int bits) {
+        return (bits >> (Math.abs(literal) - 1) & 1) != 0 == literal > 0;
+    }
+}
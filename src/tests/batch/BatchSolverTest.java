@@ -0,0 +1,56 @@
+package tests.batch;
+
+import main.BatchSolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSolverTest {
+
+    @Test
+    void testSolveAllStreamsEveryResult() throws IOException {
+        List<File> files = BatchSolver.resolve(System.getProperty("user.dir") + "/src/tests/papa/test*.txt");
+        assertEquals(files.size(), 3);
+
+        Map<String, Boolean> verdicts = new HashMap<>();
+        try (BatchSolver solver = new BatchSolver(2, 1 << 20)) {
+            solver.solveAll(files, result -> {
+                assertNull(result.getError());
+                verdicts.put(result.getFile().getName(), result.isSatisfiable());
+            });
+        }
+        assertEquals(verdicts.get("test1.txt"), true);
+        assertEquals(verdicts.get("test2.txt"), false);
+        assertEquals(verdicts.get("test3.txt"), true);
+    }
+
+    @Test
+    void testErrorsAreReported() {
+        List<BatchSolver.Result> results = new ArrayList<>();
+        try (BatchSolver solver = new BatchSolver(1, 1 << 20)) {
+            solver.solveAll(List.of(new File("does-not-exist.txt")), results::add);
+        }
+        assertEquals(results.size(), 1);
+        assertNotNull(results.get(0).getError());
+    }
+
+    @Test
+    void testThrowingListenerDoesNotHang() throws IOException {
+        List<File> files = BatchSolver.resolve(System.getProperty("user.dir") + "/src/tests/papa/test*.txt");
+        List<BatchSolver.Result> results = new ArrayList<>();
+        try (BatchSolver solver = new BatchSolver(2, 1 << 20)) {
+            solver.solveAll(files, result -> {
+                results.add(result);
+                throw new IllegalStateException("Listener failed");
+            });
+        }
+        assertEquals(results.size(), 3);
+    }
+}
@@ -0,0 +1,79 @@
+package tests.bitsliced;
+
+import main.BitSlicedEvaluator;
+import main.InstanceGenerator;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitSlicedEvaluatorTest {
+
+    private static int countSatisfied(TwoSATInstance instance, BitSet assignment) {
+        int satisfied = 0;
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            int first = instance.getFirstLiteral(i);
+            int second = instance.getSecondLiteral(i);
+            if (assignment.get(Math.abs(first)) == first > 0 || assignment.get(Math.abs(second)) == second > 0) {
+                satisfied++;
+            }
+        }
+        return satisfied;
+    }
+
+    @Test
+    void testCountsMatchScalarEvaluation() {
+        TwoSATInstance instance = InstanceGenerator.random(300, 1000, 4);
+        BitSlicedEvaluator evaluator = new BitSlicedEvaluator(instance);
+        long[] words = new long[300];
+        evaluator.randomize(words, new SplittableRandom(9));
+        int[] unsatisfied = evaluator.countUnsatisfied(words);
+        for (int lane = 0; lane < BitSlicedEvaluator.LANES; lane++) {
+            BitSet assignment = new BitSet();
+            for (int v = 1; v <= 300; v++) {
+                if (BitSlicedEvaluator.valueOf(words, v, lane)) {
+                    assignment.set(v);
+                }
+            }
+            assertEquals(1000 - countSatisfied(instance, assignment), unsatisfied[lane]);
+        }
+        int best = BitSlicedEvaluator.bestLane(unsatisfied);
+        for (int count : unsatisfied) {
+            assertTrue(unsatisfied[best] <= count);
+        }
+    }
+
+    @Test
+    void testBatchOfCandidates() {
+        TwoSATInstance instance = InstanceGenerator.planted(200, 600, 8);
+        BitSlicedEvaluator evaluator = new BitSlicedEvaluator(instance);
+        Random random = new Random(1);
+        /* More than two full passes, the last one partial */
+        BitSet[] candidates = new BitSet[150];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = new BitSet();
+            for (int v = 1; v <= 200; v++) {
+                if (random.nextBoolean()) {
+                    candidates[i].set(v);
+                }
+            }
+        }
+        int[] satisfied = evaluator.countSatisfied(candidates);
+        for (int i = 0; i < candidates.length; i++) {
+            assertEquals(countSatisfied(instance, candidates[i]), satisfied[i]);
+        }
+    }
+
+    @Test
+    void testSatisfiedLanes() {
+        /* (1 OR 2) AND (-1 OR 2): satisfied exactly where variable 2 is true */
+        TwoSATInstance instance = new TwoSATInstance(2, new int[]{1, 2, -1, 2}, 2);
+        BitSlicedEvaluator evaluator = new BitSlicedEvaluator(instance);
+        long[] words = {0x5555_5555_5555_5555L, 0x0F0F_0F0F_0F0F_0F0FL};
+        assertEquals(0x0F0F_0F0F_0F0F_0F0FL, evaluator.satisfiedLanes(words));
+    }
+}
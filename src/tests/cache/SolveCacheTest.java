@@ -0,0 +1,130 @@
+package tests.cache;
+
+import main.InstanceGenerator;
+import main.SCCTwoSAT;
+import main.SolveCache;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveCacheTest {
+
+    @Test
+    void testKeyIgnoresClauseOrderAndDuplicates() {
+        TwoSATInstance instance = new TwoSATInstance(3, new int[]{1, 2, -2, 3, 3, -1}, 3);
+        TwoSATInstance shuffled = new TwoSATInstance(3, new int[]{-1, 3, 2, 1, 3, -2, 1, 2, 1, -1}, 5);
+        assertEquals(SolveCache.keyOf(instance), SolveCache.keyOf(shuffled));
+        assertNotEquals(SolveCache.keyOf(instance), SolveCache.keyOf(new TwoSATInstance(4, new int[]{1, 2, -2, 3, 3, -1}, 3)));
+        assertNotEquals(SolveCache.keyOf(instance), SolveCache.keyOf(new TwoSATInstance(3, new int[]{1, 2, -2, 3}, 2)));
+    }
+
+    @Test
+    void testHitsAndEviction() {
+        SolveCache cache = new SolveCache(1 << 20);
+        TwoSATInstance instance = InstanceGenerator.random(1000, 1000, 1);
+        SolveCache.Entry first = cache.solve(instance);
+        assertEquals(new SCCTwoSAT().solve(instance) != null, first.isSatisfiable());
+        assertSame(first, cache.solve(instance));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        /* Entries with components of about 8 KB each: only a bounded number fit */
+        SolveCache small = new SolveCache(40_000);
+        for (int seed = 0; seed < 20; seed++) {
+            small.solve(InstanceGenerator.random(1000, 500, seed), true);
+        }
+        assertTrue(small.size() < 20);
+        assertTrue(small.size() >= 1);
+    }
+
+    @Test
+    void testConcurrentRequestsAreCoalesced() throws Exception {
+        SolveCache cache = new SolveCache(1 << 30);
+        TwoSATInstance instance = InstanceGenerator.planted(100_000, 200_000, 2);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SolveCache.Entry>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.solve(instance);
+                }));
+            }
+            start.countDown();
+            SolveCache.Entry entry = futures.get(0).get();
+            for (Future<SolveCache.Entry> future : futures) {
+                assertSame(entry, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        /* Every other request either waited for the solve or found its result */
+        assertEquals(1, cache.getMisses());
+        assertEquals(threads - 1, cache.getHits() + cache.getCoalesced());
+    }
+
+    @Test
+    void testStoreSurvivesReopening() throws IOException {
+        Path file = Files.createTempFile("solve-cache", ".bin");
+        file.toFile().deleteOnExit();
+        Files.delete(file);
+        TwoSATInstance satisfiable = InstanceGenerator.planted(5000, 8000, 4);
+        TwoSATInstance unsatisfiable = new TwoSATInstance(2, new int[]{1, 2, -1, 2, 1, -2, -1, -2}, 4);
+        SolveCache.Entry solved;
+        try (SolveCache cache = new SolveCache(1 << 20, file)) {
+            solved = cache.solve(satisfiable, true);
+            assertFalse(cache.solve(unsatisfiable).isSatisfiable());
+            assertEquals(2, cache.getMisses());
+        }
+        /* A record cut short by a crash is dropped on opening */
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(20));
+        }
+        try (SolveCache cache = new SolveCache(1 << 20, file)) {
+            SolveCache.Entry reloaded = cache.solve(satisfiable, true);
+            assertTrue(reloaded.isSatisfiable());
+            assertEquals(solved.getModel(), reloaded.getModel());
+            assertArrayEquals(solved.getComponentOf(), reloaded.getComponentOf());
+            assertFalse(cache.solve(unsatisfiable).isSatisfiable());
+            assertEquals(0, cache.getMisses());
+            assertEquals(2, cache.getStoreHits());
+        }
+    }
+
+    @Test
+    void testStoreReadsRecordsAppendedSinceOpening() throws IOException {
+        Path file = Files.createTempFile("solve-cache", ".bin");
+        file.toFile().deleteOnExit();
+        Files.delete(file);
+        /* Room in memory for about one entry, so earlier ones must come back from the store */
+        try (SolveCache cache = new SolveCache(40_000, file)) {
+            List<SolveCache.Entry> solved = new ArrayList<>();
+            for (int seed = 0; seed < 10; seed++) {
+                solved.add(cache.solve(InstanceGenerator.random(1000, 500, seed), true));
+            }
+            for (int seed = 0; seed < 10; seed++) {
+                SolveCache.Entry entry = cache.solve(InstanceGenerator.random(1000, 500, seed), true);
+                assertEquals(solved.get(seed).isSatisfiable(), entry.isSatisfiable());
+                assertArrayEquals(solved.get(seed).getComponentOf(), entry.getComponentOf());
+            }
+            assertEquals(10, cache.getMisses());
+            assertTrue(cache.getStoreHits() > 0);
+        }
+    }
+}
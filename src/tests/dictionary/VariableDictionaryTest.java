@@ -0,0 +1,91 @@
+package tests.dictionary;
+
+import main.KeyedClauseLoader;
+import main.PapaTwoSAT;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import main.VariableDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableDictionaryTest {
+
+    private static TwoSATInstance load(String text, VariableDictionary dictionary) throws IOException {
+        return KeyedClauseLoader.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), dictionary);
+    }
+
+    @Test
+    void testSparseKeysNumberedDensely() {
+        VariableDictionary dictionary = VariableDictionary.forKeys(4);
+        Random random = new Random(7);
+        long[] keys = new long[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            assertEquals(i + 1, dictionary.idOf(keys[i]));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i + 1, dictionary.idOf(keys[i]));
+            assertEquals(i + 1, dictionary.find(keys[i]));
+            assertEquals(keys[i], dictionary.getKey(i + 1));
+        }
+        assertEquals(keys.length, dictionary.size());
+        assertEquals(0, dictionary.find(keys[0] + 1));
+        assertThrows(IllegalStateException.class, () -> dictionary.idOf("x"));
+    }
+
+    @Test
+    void testLoadKeyedIds() throws IOException {
+        /* 18446744073709551615 is the largest unsigned key, read back as -1 */
+        String text = "# exported ids\n9000000000 -18446744073709551615\n\n-9000000000 18446744073709551615\n"
+                + "18446744073709551615 18446744073709551615\n-42 -9000000000\n";
+        VariableDictionary dictionary = VariableDictionary.forKeys(0);
+        TwoSATInstance instance = load(text, dictionary);
+        assertEquals(3, instance.getNumVariables());
+        assertEquals(4, instance.getNumClauses());
+        assertEquals(-1, instance.getFirstLiteral(1));
+        assertEquals(2, instance.getSecondLiteral(1));
+
+        BitSet assignment = new SCCTwoSAT().solve(instance);
+        assertNotNull(assignment);
+        /* The first two clauses make 9000000000 equivalent to the largest key, which the third forces true */
+        assertTrue(dictionary.isTrue(assignment, -1L));
+        assertTrue(dictionary.isTrue(assignment, 9000000000L));
+        assertFalse(dictionary.isTrue(assignment, 42L));
+        assertFalse(dictionary.isTrue(assignment, 12345L));
+        assertArrayEquals(new long[]{9000000000L, -1L}, dictionary.trueKeys(assignment));
+    }
+
+    @Test
+    void testLoadNamedVariables() throws IOException {
+        String text = "rain -sunny\n-rain umbrella\nsunny rain\n-umbrella -sunny\n";
+        VariableDictionary dictionary = VariableDictionary.forNames(0);
+        TwoSATInstance instance = load(text, dictionary);
+        assertEquals(3, instance.getNumVariables());
+        assertEquals(1, dictionary.find("rain"));
+        assertEquals("umbrella", dictionary.getName(3));
+
+        for (BitSet assignment : new BitSet[]{new SCCTwoSAT().solve(instance), PapaTwoSAT.solve(instance, 1)}) {
+            assertNotNull(assignment);
+            List<String> trueNames = dictionary.trueNames(assignment);
+            assertTrue(trueNames.contains("rain"));
+            assertTrue(trueNames.contains("umbrella"));
+            assertFalse(trueNames.contains("sunny"));
+        }
+    }
+
+    @Test
+    void testMalformedLines() {
+        assertThrows(IllegalArgumentException.class, () -> load("a b c\n", VariableDictionary.forNames(0)));
+        assertThrows(IllegalArgumentException.class, () -> load("a\n", VariableDictionary.forNames(0)));
+        assertThrows(NumberFormatException.class, () -> load("12 x3\n", VariableDictionary.forKeys(0)));
+        assertThrows(NumberFormatException.class, () -> load("18446744073709551616 1\n", VariableDictionary.forKeys(0)));
+    }
+}
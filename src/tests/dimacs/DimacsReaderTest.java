@@ -0,0 +1,92 @@
+package tests.dimacs;
+
+import main.ClauseLoader;
+import main.DimacsReader;
+import main.ImplicationGraph;
+import main.InstanceGenerator;
+import main.PapaTwoSAT;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DimacsReaderTest {
+
+    private static File write(String text, boolean gzip) throws IOException {
+        File file = Files.createTempFile("instance", gzip ? ".cnf.gz" : ".cnf").toFile();
+        file.deleteOnExit();
+        try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(file.toPath()))
+                : Files.newOutputStream(file.toPath())) {
+            out.write(text.getBytes());
+        }
+        return file;
+    }
+
+    @Test
+    void testCommentsHeaderAndSpanningClauses() throws IOException {
+        /* The second clause spans two lines, and the line after the comment holds two clauses */
+        String text = "c a small instance\nc\np cnf 4 5\n1 2 0\n-2\n3 0\n"
+                + "c between clauses\n-3 -4 0 1 4 0\n4 0\n%\n0\n";
+        for (boolean gzip : new boolean[]{false, true}) {
+            File file = write(text, gzip);
+            assertTrue(DimacsReader.isDimacs(file));
+            TwoSATInstance instance = ClauseLoader.load(file);
+            assertEquals(4, instance.getNumVariables());
+            assertEquals(5, instance.getNumClauses());
+            /* The unit clause 4 is read as (4 OR 4) */
+            assertEquals(IntBuffer.wrap(new int[]{1, 2, -2, 3, -3, -4, 1, 4, 4, 4}), instance.getClauseLiterals());
+        }
+    }
+
+    @Test
+    void testStreamedGraphMatchesLoadedGraph() throws IOException {
+        TwoSATInstance instance = InstanceGenerator.random(2000, 3000, 5);
+        File file = Files.createTempFile("instance", ".cnf.gz").toFile();
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(new GZIPOutputStream(Files.newOutputStream(file.toPath())))) {
+            writer.println("p cnf " + instance.getNumVariables() + " " + instance.getNumClauses());
+            for (int i = 0; i < instance.getNumClauses(); i++) {
+                writer.println(instance.getFirstLiteral(i) + " " + instance.getSecondLiteral(i) + " 0");
+            }
+        }
+        ImplicationGraph streamed = DimacsReader.buildGraph(file);
+        ImplicationGraph loaded = ImplicationGraph.build(instance);
+        assertArrayEquals(loaded.getOffsets(), streamed.getOffsets());
+        assertArrayEquals(loaded.getTargets(), streamed.getTargets());
+        assertArrayEquals(loaded.getReverseOffsets(), streamed.getReverseOffsets());
+        assertArrayEquals(loaded.getReverseTargets(), streamed.getReverseTargets());
+        assertEquals(new SCCTwoSAT().solve(instance) != null, new SCCTwoSAT().computeSatisfiability(file));
+    }
+
+    @Test
+    void testSolveDimacsFile() throws IOException {
+        File file = write("p cnf 3 4\n1 2 0\n-1 2 0\n-2 3 0\n-3 -1 0\n", true);
+        assertTrue(new SCCTwoSAT().computeSatisfiability(file));
+        assertTrue(PapaTwoSAT.solveTwoSAT(file));
+        File unsatisfiable = write("p cnf 2 4\n1 2 0\n-1 2 0\n1 -2 0\n-1 -2 0\n", false);
+        assertFalse(new SCCTwoSAT().computeSatisfiability(unsatisfiable));
+    }
+
+    @Test
+    void testRejectsMalformedInput() throws IOException {
+        File threeLiterals = write("p cnf 3 1\n1 2 3 0\n", false);
+        assertThrows(IllegalArgumentException.class, () -> ClauseLoader.load(threeLiterals));
+        File outOfRange = write("p cnf 2 1\n1 3 0\n", true);
+        assertThrows(IllegalArgumentException.class, () -> DimacsReader.buildGraph(outOfRange));
+        File noHeader = write("c no header\n1 2 0\n", false);
+        assertThrows(IllegalArgumentException.class, () -> DimacsReader.load(noHeader));
+        File zstd = Files.createTempFile("instance", ".cnf.zst").toFile();
+        zstd.deleteOnExit();
+        Files.write(zstd.toPath(), new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0, 0});
+        assertThrows(IOException.class, () -> DimacsReader.load(zstd));
+    }
+}
@@ -0,0 +1,59 @@
+package tests.equivalence;
+
+import main.EquivalenceReduction;
+import main.InstanceGenerator;
+import main.PapaTwoSAT;
+import main.SCCTwoSAT;
+import main.SolverListener;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquivalenceReductionTest {
+
+    @Test
+    void testClustersCollapse() {
+        TwoSATInstance instance = InstanceGenerator.clusters(1000, 10, 1, 3);
+        EquivalenceReduction reduction = EquivalenceReduction.reduce(instance);
+        assertTrue(reduction.isSatisfiable());
+        /* Each cluster of ten equivalent variables becomes a single quotient variable */
+        assertEquals(100, reduction.getQuotient().getNumVariables());
+        assertEquals(900, reduction.getNumMergedVariables());
+
+        BitSet quotientModel = new SCCTwoSAT().solve(reduction.getQuotient());
+        assertNotNull(quotientModel);
+        assertTrue(instance.isSatisfiedBy(reduction.expand(quotientModel)));
+    }
+
+    @Test
+    void testMirrorLiterals() {
+        /* 1 => -2 and -2 => 1 make 1 and -2 equivalent; 3 is unconstrained by them */
+        TwoSATInstance instance = new TwoSATInstance(3, new int[]{-1, -2, 2, 1, 1, 3, -2, 3}, 4);
+        EquivalenceReduction reduction = EquivalenceReduction.reduce(instance);
+        assertEquals(2, reduction.getQuotient().getNumVariables());
+        assertEquals(reduction.getQuotientLiteral(1), reduction.getQuotientLiteral(-2));
+        assertEquals(-reduction.getQuotientLiteral(1), reduction.getQuotientLiteral(2));
+        /* (1 OR 3) and (-2 OR 3) merge into the same clause; the first two clauses are tautologies */
+        assertEquals(2, reduction.getQuotient().getNumClauses());
+    }
+
+    @Test
+    void testConflict() {
+        TwoSATInstance instance = new TwoSATInstance(2, new int[]{1, 2, -1, 2, 1, -2, -1, -2}, 4);
+        assertFalse(EquivalenceReduction.reduce(instance).isSatisfiable());
+        assertNull(PapaTwoSAT.solve(instance, 1));
+    }
+
+    @Test
+    void testPapaOnStructuredInstance() {
+        TwoSATInstance instance = InstanceGenerator.clusters(2000, 50, 2, 11);
+        BitSet assignment = PapaTwoSAT.solve(instance, 7);
+        assertNotNull(assignment);
+        assertTrue(instance.isSatisfiedBy(assignment));
+        assertEquals(assignment, PapaTwoSAT.solvePortfolio(instance, 7, 4, true, SolverListener.NONE));
+        assertTrue(instance.isSatisfiedBy(PapaTwoSAT.solvePortfolio(instance, 7, 4)));
+    }
+}
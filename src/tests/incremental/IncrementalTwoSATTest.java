@@ -0,0 +1,61 @@
+package tests.incremental;
+
+import main.ClauseLoader;
+import main.ImplicationGraph;
+import main.IncrementalTwoSAT;
+import main.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTwoSATTest {
+
+    @Test
+    void testDataFiles() throws IOException {
+        IncrementalTwoSAT sat = new IncrementalTwoSAT();
+        assertTrue(sat.addClauses(ClauseLoader.load(
+                new File(System.getProperty("user.dir") + "/src/tests/papa/test3.txt"))));
+
+        IncrementalTwoSAT unsat = new IncrementalTwoSAT();
+        assertFalse(unsat.addClauses(ClauseLoader.load(
+                new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt"))));
+        /* Stays unsatisfiable */
+        assertFalse(unsat.addClause(5, 6));
+        assertFalse(unsat.isSatisfiable());
+    }
+
+    @Test
+    void testEquivalence() {
+        IncrementalTwoSAT sat = new IncrementalTwoSAT();
+        /* 1 -> 2 -> 3 -> 1 */
+        sat.addClause(-1, 2);
+        sat.addClause(-2, 3);
+        assertFalse(sat.areEquivalent(1, 3));
+        sat.addClause(-3, 1);
+        assertTrue(sat.areEquivalent(1, 3));
+        assertTrue(sat.areEquivalent(-2, -1));
+        assertTrue(sat.isSatisfiable());
+    }
+
+    @Test
+    void testMatchesBatchSolverAfterEveryClause() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++) {
+            int numVariables = 10 + random.nextInt(40);
+            int numClauses = 2 * numVariables;
+            int[] clauseLiterals = new int[2 * numClauses];
+            IncrementalTwoSAT incremental = new IncrementalTwoSAT();
+            for (int i = 0; i < numClauses; i++) {
+                clauseLiterals[2 * i] = (random.nextInt(numVariables) + 1) * (random.nextBoolean() ? 1 : -1);
+                clauseLiterals[2 * i + 1] = (random.nextInt(numVariables) + 1) * (random.nextBoolean() ? 1 : -1);
+                boolean expected = TarjanSCC.compute(
+                        ImplicationGraph.build(numVariables, clauseLiterals, i + 1)).isSatisfiable();
+                assertEquals(incremental.addClause(clauseLiterals[2 * i], clauseLiterals[2 * i + 1]), expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package tests.loader;
+
+import main.BinaryInstanceFormat;
+import main.ClauseLoader;
+import main.ImplicationGraph;
+import main.PapaTwoSAT;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClauseLoaderTest {
+
+    @Test
+    void testWhitespaceAndBlankLines() throws IOException {
+        TwoSATInstance instance =
+                ClauseLoader.load(new File(System.getProperty("user.dir") + "/src/tests/loader/test1.txt"));
+        assertEquals(instance.getNumVariables(), 4);
+        assertEquals(instance.getNumClauses(), 4);
+        assertEquals(instance.getClauseLiterals(), IntBuffer.wrap(new int[]{1, 2, 2, -3, -3, -4, 1, 4}));
+    }
+
+    @Test
+    void testManyChunks() throws IOException {
+        /* Large enough to be split into several chunks */
+        int numVariables = 100000;
+        int numClauses = 400000;
+        int[] expected = new int[2 * numClauses];
+        Random random = new Random(42);
+        File file = Files.createTempFile("clauses", ".txt").toFile();
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println(numVariables);
+            for (int i = 0; i < 2 * numClauses; i += 2) {
+                expected[i] = (random.nextInt(numVariables) + 1) * (random.nextBoolean() ? 1 : -1);
+                expected[i + 1] = (random.nextInt(numVariables) + 1) * (random.nextBoolean() ? 1 : -1);
+                writer.println(expected[i] + " " + expected[i + 1]);
+            }
+        }
+        TwoSATInstance instance = ClauseLoader.load(file);
+        assertEquals(instance.getNumClauses(), numClauses);
+        assertEquals(instance.getClauseLiterals(), IntBuffer.wrap(expected));
+    }
+
+    @Test
+    void testMalformedLine() throws IOException {
+        File file = Files.createTempFile("clauses", ".txt").toFile();
+        file.deleteOnExit();
+        Files.write(file.toPath(), "3\n1 2 3\n".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> ClauseLoader.load(file));
+    }
+
+    @Test
+    void testLiteralOutOfRange() throws IOException {
+        File file = Files.createTempFile("clauses", ".txt").toFile();
+        file.deleteOnExit();
+        for (String clause : new String[]{"1 7", "-12345678901234567890 1", "0 2"}) {
+            Files.write(file.toPath(), ("3\n" + clause + "\n").getBytes());
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ClauseLoader.load(file));
+            assertTrue(e.getMessage().contains("Literal out of range"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        File textFile = new File(System.getProperty("user.dir") + "/src/tests/papa/test3.txt");
+        File binaryFile = Files.createTempFile("clauses", ".bin").toFile();
+        binaryFile.deleteOnExit();
+        for (boolean withOffsets : new boolean[]{false, true}) {
+            BinaryInstanceFormat.convert(textFile, binaryFile, withOffsets);
+            assertTrue(BinaryInstanceFormat.isBinary(binaryFile));
+
+            TwoSATInstance text = ClauseLoader.load(textFile);
+            TwoSATInstance binary = ClauseLoader.load(binaryFile);
+            assertEquals(binary.getNumVariables(), text.getNumVariables());
+            assertEquals(binary.hasOffsets(), withOffsets);
+            assertEquals(binary.getClauseLiterals(), text.getClauseLiterals());
+
+            ImplicationGraph fromText = ImplicationGraph.build(text);
+            ImplicationGraph fromBinary = ImplicationGraph.build(binary);
+            assertArrayEquals(fromBinary.getOffsets(), fromText.getOffsets());
+            assertArrayEquals(fromBinary.getTargets(), fromText.getTargets());
+            assertArrayEquals(fromBinary.getReverseOffsets(), fromText.getReverseOffsets());
+            assertArrayEquals(fromBinary.getReverseTargets(), fromText.getReverseTargets());
+        }
+        assertTrue(new SCCTwoSAT().computeSatisfiability(binaryFile));
+        assertTrue(PapaTwoSAT.solveTwoSAT(binaryFile));
+    }
+
+    @Test
+    void testCorruptBinaryIsRejected() throws IOException {
+        File textFile = new File(System.getProperty("user.dir") + "/src/tests/papa/test3.txt");
+        File binaryFile = Files.createTempFile("clauses", ".bin").toFile();
+        binaryFile.deleteOnExit();
+        BinaryInstanceFormat.convert(textFile, binaryFile, true);
+        /* The second forward offset, just past the five header ints, and the last literal */
+        for (long position : new long[]{24, binaryFile.length() - 4}) {
+            BinaryInstanceFormat.convert(textFile, binaryFile, true);
+            try (RandomAccessFile raf = new RandomAccessFile(binaryFile, "rw")) {
+                raf.seek(position);
+                raf.write(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0x7f});
+            }
+            assertThrows(IOException.class, () -> BinaryInstanceFormat.load(binaryFile));
+        }
+        BinaryInstanceFormat.convert(textFile, binaryFile, false);
+        try (RandomAccessFile raf = new RandomAccessFile(binaryFile, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        assertThrows(IOException.class, () -> BinaryInstanceFormat.load(binaryFile));
+    }
+}
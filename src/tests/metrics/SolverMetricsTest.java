@@ -0,0 +1,86 @@
+package tests.metrics;
+
+import main.InstanceGenerator;
+import main.PapaTwoSAT;
+import main.SCCTwoSAT;
+import main.SolverMetrics;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverMetricsTest {
+
+    @Test
+    void testSCCEvents() {
+        SolverMetrics metrics = new SolverMetrics();
+        SCCTwoSAT solver = new SCCTwoSAT();
+        solver.setListener(metrics);
+        assertNotNull(solver.solve(new File(System.getProperty("user.dir") + "/src/tests/scc/test1.txt")));
+        assertEquals(1, metrics.getTimerCount("parse"));
+        assertEquals(1, metrics.getTimerCount("graphBuild"));
+        assertEquals(1, metrics.getTimerCount("tarjan"));
+        assertTrue(metrics.getCount("components") > 0);
+        assertTrue(metrics.getMax("largestComponent") >= 1);
+    }
+
+    @Test
+    void testKosarajuPassesTimed() {
+        SolverMetrics metrics = new SolverMetrics();
+        SCCTwoSAT solver = new SCCTwoSAT();
+        solver.setListener(metrics);
+        solver.outerDFSLoop(solver.formReverseGraph(
+                solver.formTwoSATGraph(new File(System.getProperty("user.dir") + "/src/tests/scc/test1.txt"))), true);
+        assertEquals(1, metrics.getTimerCount("kosarajuFirstPass"));
+    }
+
+    @Test
+    void testPapaEvents() {
+        TwoSATInstance instance = InstanceGenerator.planted(2000, 3000, 3);
+        SolverMetrics metrics = new SolverMetrics(100);
+        BitSet assignment = PapaTwoSAT.solve(instance, 11L, metrics);
+        assertNotNull(assignment);
+        assertEquals(1, metrics.getTimerCount("preprocess"));
+        assertEquals(1, metrics.getCount("satisfiedRestarts"));
+        assertTrue(metrics.getCount("restarts") >= 1);
+        assertTrue(metrics.getCount("flips") > 0);
+        long[][] trajectory = metrics.getUnsatisfiedTrajectory();
+        assertTrue(trajectory.length > 0);
+        assertEquals(0, trajectory[0][1]);
+        assertTrue(trajectory[0][2] > 0);
+    }
+
+    @Test
+    void testTrajectoryIsDecimated() {
+        SolverMetrics metrics = new SolverMetrics(100);
+        for (int i = 0; i < 1000; i++) {
+            metrics.unsatisfiedSampled(0, 4096L * i, 1000 - i);
+        }
+        long[][] trajectory = metrics.getUnsatisfiedTrajectory();
+        assertTrue(trajectory.length >= 50 && trajectory.length <= 100);
+        /* Evenly spaced from the first sample to near the last */
+        long spacing = trajectory[1][1] - trajectory[0][1];
+        for (int i = 0; i < trajectory.length; i++) {
+            assertEquals(i * spacing, trajectory[i][1]);
+        }
+        assertEquals(0, trajectory[0][1]);
+        assertTrue(trajectory[trajectory.length - 1][1] + spacing > 4096L * 999);
+    }
+
+    @Test
+    void testJson() {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.increment("flips", 5);
+        metrics.record("parse", 7);
+        metrics.max("largestComponent", 3);
+        metrics.unsatisfiedSampled(0, 4096, 2);
+        assertEquals("{\"counters\": {\"flips\": 5}, "
+                        + "\"timers\": {\"parse\": {\"count\": 1, \"totalNanos\": 7, \"maxNanos\": 7}}, "
+                        + "\"maxima\": {\"largestComponent\": 3}, "
+                        + "\"unsatisfiedTrajectory\": [[0, 4096, 2]]}",
+                metrics.toJson());
+    }
+}
@@ -0,0 +1,75 @@
+package tests.offheap;
+
+import main.ImplicationGraph;
+import main.InstanceGenerator;
+import main.OffHeapArray;
+import main.OffHeapImplicationGraph;
+import main.OffHeapSCCResult;
+import main.OffHeapTarjanSCC;
+import main.SCCResult;
+import main.SCCTwoSAT;
+import main.TarjanSCC;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTarjanSCCTest {
+
+    @Test
+    void testMatchesOnHeapTarjan() {
+        for (int seed = 0; seed < 20; seed++) {
+            TwoSATInstance instance = seed % 2 == 0
+                    ? InstanceGenerator.threshold(5000, seed)
+                    : InstanceGenerator.clusters(5000, 20, 2, seed);
+            SCCResult expected = TarjanSCC.compute(ImplicationGraph.build(instance));
+            try (OffHeapImplicationGraph graph = OffHeapImplicationGraph.build(instance, null);
+                 OffHeapSCCResult actual = OffHeapTarjanSCC.compute(graph, null)) {
+                assertEquals(expected.isSatisfiable(), actual.isSatisfiable());
+                assertEquals(expected.getComponentCount(), actual.getComponentCount());
+                assertEquals(expected.toAssignment(), actual.toAssignment());
+            }
+        }
+    }
+
+    @Test
+    void testFileBackedSolve() throws IOException {
+        Path directory = Files.createTempDirectory("offheap");
+        SCCTwoSAT solver = new SCCTwoSAT();
+        solver.setOffHeap(true, directory);
+        /* A chain deeper than any thread stack would allow for a recursive search */
+        TwoSATInstance instance = InstanceGenerator.chain(1000000, 1);
+        BitSet assignment = solver.solve(instance);
+        assertNotNull(assignment);
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            int first = instance.getFirstLiteral(i);
+            int second = instance.getSecondLiteral(i);
+            assertTrue(assignment.get(Math.abs(first)) == first > 0 || assignment.get(Math.abs(second)) == second > 0);
+        }
+        assertNull(solver.solve(new TwoSATInstance(1, new int[]{1, 1, -1, -1}, 2)));
+        assertEquals(new SCCTwoSAT().computeSatisfiability(
+                        new File(System.getProperty("user.dir") + "/src/tests/scc/test2.txt")),
+                solver.computeSatisfiability(new File(System.getProperty("user.dir") + "/src/tests/scc/test2.txt")));
+    }
+
+    @Test
+    void testArrayAcrossSegments() {
+        /* 1.25 GiB of longs would not fit a single buffer; only touch a few elements, the file stays sparse */
+        try (OffHeapArray array = OffHeapArray.longs(160L << 20, Files.createTempDirectory("offheap"))) {
+            long last = array.length() - 1;
+            array.setLong(last, 42L);
+            array.setLong(1L << 27, 7L);
+            assertEquals(42L, array.getLong(last));
+            assertEquals(7L, array.getLong(1L << 27));
+            assertEquals(0L, array.getLong(0));
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package tests.papa;
 
+import main.CancellationToken;
 import main.Clause;
+import main.ClauseLoader;
+import main.InstanceGenerator;
+import main.PapaTwoSAT;
+import main.SolverListener;
+import main.TwoSATInstance;
 import org.junit.jupiter.api.Test;
 
-import main.PapaTwoSAT;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +39,11 @@ class PapaTwoSATTest {
         assertTrue(PapaTwoSAT.solveTwoSAT(testFile));
     }
 
+    @Test
+    void testUnreadableFileThrows() {
+        assertThrows(UncheckedIOException.class, () -> PapaTwoSAT.solve(new File("does-not-exist.txt")));
+    }
+
     @Test
     void testEvaluateClause1() {
         Map<Integer, Boolean> varMap = new HashMap<>();
@@ -38,4 +52,80 @@ class PapaTwoSATTest {
         Clause clause = new Clause(-1, 2);
         assertFalse(PapaTwoSAT.evaluateClause(varMap, clause));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSolveReturnsModel() throws IOException {
+        File testFile = new File(System.getProperty("user.dir") + "/src/tests/papa/test3.txt");
+        BitSet assignment = PapaTwoSAT.solve(testFile);
+        assertNotNull(assignment);
+        assertTrue(ClauseLoader.load(testFile).isSatisfiedBy(assignment));
+    }
+
+    @Test
+    void testPlantedInstance() {
+        TwoSATInstance instance = InstanceGenerator.planted(2000, 3000, 5);
+        BitSet assignment = PapaTwoSAT.solve(instance);
+        assertNotNull(assignment);
+        assertTrue(instance.isSatisfiedBy(assignment));
+    }
+
+    @Test
+    void testPortfolioIsReproducible() {
+        TwoSATInstance instance = InstanceGenerator.planted(500, 900, 9);
+        BitSet sequential = PapaTwoSAT.solve(instance, 1234L);
+        assertNotNull(sequential);
+        assertTrue(instance.isSatisfiedBy(sequential));
+        assertEquals(PapaTwoSAT.solvePortfolio(instance, 1234L, 4, true, SolverListener.NONE), sequential);
+        assertEquals(PapaTwoSAT.solvePortfolio(instance, 1234L, 1, true, SolverListener.NONE), sequential);
+    }
+
+    @Test
+    void testPortfolioReturnsFirstModel() {
+        TwoSATInstance instance = InstanceGenerator.planted(500, 900, 9);
+        BitSet assignment = PapaTwoSAT.solvePortfolio(instance, 1234L, 4);
+        assertNotNull(assignment);
+        assertTrue(instance.isSatisfiedBy(assignment));
+        /* An unsatisfiable instance stays unsatisfiable however the restarts race */
+        assertNull(PapaTwoSAT.solvePortfolio(new TwoSATInstance(2, new int[]{1, 2, -1, 2, 1, -2, -1, -2}, 4),
+                1234L, 4));
+    }
+
+    @Test
+    void testAnytimeWithoutLimitsMatchesSolve() {
+        TwoSATInstance instance = InstanceGenerator.planted(500, 900, 9);
+        PapaTwoSAT.Result result = PapaTwoSAT.solveAnytime(instance, 1234L, Long.MAX_VALUE, null);
+        assertEquals(PapaTwoSAT.Result.Verdict.SATISFIABLE, result.getVerdict());
+        assertEquals(PapaTwoSAT.solve(instance, 1234L), result.getAssignment());
+        assertEquals(0, result.getNumUnsatisfied());
+    }
+
+    @Test
+    void testAnytimeStopsAtBudget() {
+        TwoSATInstance instance = InstanceGenerator.planted(20000, 30000, 3);
+        PapaTwoSAT.Result result = PapaTwoSAT.solveAnytime(instance, 1L, 100, null);
+        assertEquals(PapaTwoSAT.Result.Verdict.UNKNOWN, result.getVerdict());
+        assertEquals(100, result.getNumFlips());
+        assertNotNull(result.getAssignment());
+        int unsatisfied = instance.countUnsatisfied(result.getAssignment());
+        assertEquals(unsatisfied, result.getNumUnsatisfied());
+        assertTrue(unsatisfied > 0);
+    }
+
+    @Test
+    void testAnytimeStopsAtDeadline() {
+        TwoSATInstance instance = InstanceGenerator.planted(20000, 30000, 3);
+        PapaTwoSAT.Result result = PapaTwoSAT.solveAnytime(instance, 1L, Long.MAX_VALUE,
+                CancellationToken.withTimeout(Duration.ZERO));
+        assertEquals(PapaTwoSAT.Result.Verdict.UNKNOWN, result.getVerdict());
+        assertEquals(0, result.getNumFlips());
+        assertNotNull(result.getAssignment());
+    }
+
+    @Test
+    void testAnytimeUnsatisfiable() {
+        TwoSATInstance instance = new TwoSATInstance(2, new int[]{1, 2, -1, 2, 1, -2, -1, -2}, 4);
+        PapaTwoSAT.Result result = PapaTwoSAT.solveAnytime(instance, 1L, Long.MAX_VALUE, null);
+        assertEquals(PapaTwoSAT.Result.Verdict.UNSATISFIABLE, result.getVerdict());
+        assertNull(result.getAssignment());
+    }
+}
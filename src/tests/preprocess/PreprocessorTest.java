@@ -0,0 +1,79 @@
+package tests.preprocess;
+
+import main.Preprocessor;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreprocessorTest {
+
+    @Test
+    void testTautologiesAndDuplicatesRemoved() {
+        /* (1 OR -1) is a tautology and (2 OR 3) appears three times, once reversed */
+        TwoSATInstance instance = new TwoSATInstance(3, new int[]{1, -1, 2, 3, 3, 2, 2, 3, -2, -3, 2, -3, -2, 3}, 7);
+        Preprocessor.Result result = Preprocessor.preprocess(instance);
+        assertTrue(result.isSatisfiable());
+        assertEquals(4, result.getReduced().getNumClauses());
+        assertEquals(2, result.getReduced().getNumVariables());
+    }
+
+    @Test
+    void testUnitPropagation() {
+        /* 1 is forced true, which forces 2 false, which forces 3 true */
+        TwoSATInstance instance = new TwoSATInstance(4, new int[]{1, 1, -1, -2, 2, 3, 4, -4}, 4);
+        Preprocessor.Result result = Preprocessor.preprocess(instance);
+        assertTrue(result.isSatisfiable());
+        assertEquals(0, result.getReduced().getNumClauses());
+        BitSet assignment = result.expand(new BitSet());
+        assertTrue(assignment.get(1));
+        assertFalse(assignment.get(2));
+        assertTrue(assignment.get(3));
+    }
+
+    @Test
+    void testUnitConflict() {
+        TwoSATInstance instance = new TwoSATInstance(2, new int[]{1, 1, -1, 2, -2, -2}, 3);
+        assertFalse(Preprocessor.preprocess(instance).isSatisfiable());
+    }
+
+    @Test
+    void testPureLiteralsToFixpoint() {
+        /* -1 is pure; removing its clauses leaves 2 pure, then 3 */
+        TwoSATInstance instance = new TwoSATInstance(4,
+                new int[]{-1, 2, -1, -2, 2, 3, 3, 4, 3, -4}, 5);
+        Preprocessor.Result result = Preprocessor.preprocess(instance);
+        assertTrue(result.isSatisfiable());
+        assertEquals(0, result.getReduced().getNumClauses());
+        assertEquals(4, result.getNumEliminatedVariables());
+        assertTrue(instance.isSatisfiedBy(result.expand(new BitSet())));
+    }
+
+    @Test
+    void testAgreesWithUnpreprocessedSolver() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 500; trial++) {
+            int numVariables = 1 + random.nextInt(12);
+            int numClauses = random.nextInt(3 * numVariables);
+            int[] literals = new int[2 * numClauses];
+            for (int i = 0; i < literals.length; i++) {
+                int variable = 1 + random.nextInt(numVariables);
+                literals[i] = random.nextBoolean() ? variable : -variable;
+            }
+            TwoSATInstance instance = new TwoSATInstance(numVariables, literals, numClauses);
+
+            boolean expected = new SCCTwoSAT().solve(instance) != null;
+            SCCTwoSAT preprocessing = new SCCTwoSAT();
+            preprocessing.setPreprocessing(true);
+            BitSet assignment = preprocessing.solve(instance);
+            assertEquals(expected, assignment != null);
+            if (assignment != null) {
+                assertTrue(instance.isSatisfiedBy(assignment));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package tests.reorder;
+
+import main.InstanceGenerator;
+import main.SCCTwoSAT;
+import main.TwoSATInstance;
+import main.VariableReordering;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableReorderingTest {
+
+    @Test
+    void testChainBecomesConsecutive() {
+        TwoSATInstance instance = InstanceGenerator.chain(1000, 2);
+        VariableReordering reordering = VariableReordering.compute(instance);
+        BitSet seen = new BitSet();
+        for (int v = 1; v <= 1000; v++) {
+            seen.set(reordering.getOriginalVariable(v));
+            assertEquals(v, Math.abs(reordering.renumber(reordering.getOriginalVariable(v))));
+        }
+        assertEquals(1000, seen.cardinality());
+        /* Breadth-first from an end of the chain numbers it in order, so every clause joins neighbours */
+        TwoSATInstance renumbered = reordering.apply(instance);
+        for (int i = 0; i < renumbered.getNumClauses(); i++) {
+            assertEquals(1, Math.abs(Math.abs(renumbered.getFirstLiteral(i)) - Math.abs(renumbered.getSecondLiteral(i))));
+        }
+    }
+
+    @Test
+    void testSolveWithReordering() {
+        SCCTwoSAT solver = new SCCTwoSAT();
+        solver.setReordering(true);
+        for (int seed = 0; seed < 50; seed++) {
+            TwoSATInstance instance = InstanceGenerator.random(200, 200 + seed, seed);
+            BitSet assignment = solver.solve(instance);
+            assertEquals(new SCCTwoSAT().solve(instance) != null, assignment != null);
+            if (assignment != null) {
+                for (int i = 0; i < instance.getNumClauses(); i++) {
+                    int first = instance.getFirstLiteral(i);
+                    int second = instance.getSecondLiteral(i);
+                    assertTrue(assignment.get(Math.abs(first)) == first > 0
+                            || assignment.get(Math.abs(second)) == second > 0);
+                }
+            }
+        }
+    }
+}
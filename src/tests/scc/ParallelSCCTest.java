@@ -0,0 +1,92 @@
+package tests.scc;
+
+import main.ImplicationGraph;
+import main.ParallelSCC;
+import main.SCCResult;
+import main.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSCCTest {
+
+    /**
+     * Checks that the parallel engine finds the same components and verdict as Tarjan's algorithm, with ids
+     * in reverse topological order
+     */
+    private static void assertSameAsSequential(ImplicationGraph graph) {
+        SCCResult sequential = TarjanSCC.compute(graph, false);
+        SCCResult parallel = ParallelSCC.compute(graph, 0, ForkJoinPool.commonPool());
+        assertEquals(parallel.getComponentCount(), sequential.getComponentCount());
+        assertEquals(parallel.isSatisfiable(), sequential.isSatisfiable());
+
+        int[] sequentialIds = sequential.getComponentOf();
+        int[] parallelIds = parallel.getComponentOf();
+        Map<Integer, Integer> idMap = new HashMap<>();
+        for (int v = 0; v < graph.getNumVertices(); v++) {
+            Integer mapped = idMap.putIfAbsent(sequentialIds[v], parallelIds[v]);
+            assertTrue(mapped == null || mapped == parallelIds[v]);
+            for (int e = graph.getOffsets()[v]; e < graph.getOffsets()[v + 1]; e++) {
+                assertTrue(parallelIds[v] >= parallelIds[graph.getTargets()[e]]);
+            }
+        }
+
+        BitSet assignment = parallel.toAssignment();
+        if (parallel.isSatisfiable()) {
+            for (int v = 0; v < graph.getNumVertices(); v++) {
+                for (int e = graph.getOffsets()[v]; e < graph.getOffsets()[v + 1]; e++) {
+                    /* An implication v -> w must hold */
+                    int from = ImplicationGraph.literalOf(v);
+                    int to = ImplicationGraph.literalOf(graph.getTargets()[e]);
+                    boolean fromTrue = assignment.get(Math.abs(from)) == from > 0;
+                    boolean toTrue = assignment.get(Math.abs(to)) == to > 0;
+                    assertTrue(!fromTrue || toTrue);
+                }
+            }
+        }
+    }
+
+    private static ImplicationGraph randomGraph(Random random, int numVariables, int numClauses) {
+        int[] clauseLiterals = new int[2 * numClauses];
+        for (int i = 0; i < clauseLiterals.length; i++) {
+            clauseLiterals[i] = (random.nextInt(numVariables) + 1) * (random.nextBoolean() ? 1 : -1);
+        }
+        return ImplicationGraph.build(numVariables, clauseLiterals, numClauses);
+    }
+
+    @Test
+    void testRandomGraphs() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 10; trial++) {
+            int numVariables = 20000 + random.nextInt(20000);
+            /* Below, near and above the clause/variable ratio 1 threshold */
+            int numClauses = numVariables * (trial % 3 + 1) / 2;
+            assertSameAsSequential(randomGraph(random, numVariables, numClauses));
+        }
+    }
+
+    @Test
+    void testLongCycle() {
+        /* x1 -> x2 -> ... -> xn -> x1, which trimming cannot remove */
+        int numVariables = 200000;
+        int[] clauseLiterals = new int[2 * numVariables];
+        for (int i = 1; i <= numVariables; i++) {
+            clauseLiterals[2 * (i - 1)] = -i;
+            clauseLiterals[2 * (i - 1) + 1] = i % numVariables + 1;
+        }
+        assertSameAsSequential(ImplicationGraph.build(numVariables, clauseLiterals, numVariables));
+    }
+
+    @Test
+    void testSmallGraphFallsBack() {
+        ImplicationGraph graph = randomGraph(new Random(3), 50, 60);
+        SCCResult result = ParallelSCC.compute(graph);
+        assertEquals(result.getComponentCount(), TarjanSCC.compute(graph, false).getComponentCount());
+    }
+}
@@ -1,10 +1,24 @@
 package tests.scc;
 
+import main.Clause;
+import main.ClauseLoader;
+import main.ImplicationGraph;
+import main.InstanceGenerator;
+import main.SCCResult;
 import main.SCCTwoSAT;
+import main.TarjanSCC;
+import main.TwoSATInstance;
+import main.UnsatWitness;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -89,4 +103,170 @@ class SCCTwoSATTest {
         Map<Integer, Set<Integer>> sccMap = sccTwoSAT.getSccMap();
         assertEquals(sccMap.size(), 8);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testImplicationGraphFormation() {
+        ImplicationGraph graph =
+                sccTwoSAT.formImplicationGraph(new File(System.getProperty("user.dir") + "/src/tests/scc/test1.txt"));
+        assertEquals(graph.getNumVertices(), 8);
+        assertEquals(graph.getNumEdges(), 4);
+
+        int notOne = ImplicationGraph.vertexOf(-1);
+        int[] offsets = graph.getOffsets();
+        assertEquals(offsets[notOne + 1] - offsets[notOne], 1);
+        assertEquals(ImplicationGraph.literalOf(graph.getTargets()[offsets[notOne]]), 2);
+
+        int two = ImplicationGraph.vertexOf(2);
+        int[] reverseOffsets = graph.getReverseOffsets();
+        assertEquals(reverseOffsets[two + 1] - reverseOffsets[two], 1);
+        assertEquals(ImplicationGraph.literalOf(graph.getReverseTargets()[reverseOffsets[two]]), -1);
+    }
+
+    @Test
+    void testSatisfiability() {
+        assertTrue(sccTwoSAT.computeSatisfiability(
+                new File(System.getProperty("user.dir") + "/src/tests/scc/test2.txt")));
+        assertTrue(sccTwoSAT.computeSatisfiability(
+                new File(System.getProperty("user.dir") + "/src/tests/papa/test1.txt")));
+        assertFalse(sccTwoSAT.computeSatisfiability(
+                new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt")));
+    }
+
+    @Test
+    void testLongImplicationChain() {
+        /* x1 -> x2 -> ... -> xn -> NOT x1, deep enough to overflow a recursive DFS */
+        int numVariables = 1_000_000;
+        int[] clauseLiterals = new int[2 * numVariables];
+        for (int i = 1; i < numVariables; i++) {
+            clauseLiterals[2 * (i - 1)] = -i;
+            clauseLiterals[2 * (i - 1) + 1] = i + 1;
+        }
+        clauseLiterals[2 * (numVariables - 1)] = -numVariables;
+        clauseLiterals[2 * (numVariables - 1) + 1] = -1;
+        ImplicationGraph graph = ImplicationGraph.build(numVariables, clauseLiterals, numVariables);
+
+        SCCResult result = TarjanSCC.compute(graph, false);
+        assertTrue(result.isSatisfiable());
+        assertEquals(result.getComponentCount(), graph.getNumVertices());
+    }
+
+    @Test
+    void testComponentsCloseInReverseTopologicalOrder() {
+        ImplicationGraph graph =
+                sccTwoSAT.formImplicationGraph(new File(System.getProperty("user.dir") + "/src/tests/papa/test3.txt"));
+        SCCResult result = TarjanSCC.compute(graph, false);
+        int[] componentOf = result.getComponentOf();
+        for (int v = 0; v < graph.getNumVertices(); v++) {
+            for (int e = graph.getOffsets()[v]; e < graph.getOffsets()[v + 1]; e++) {
+                assertTrue(componentOf[v] >= componentOf[graph.getTargets()[e]]);
+            }
+        }
+    }
+
+    @Test
+    void testConflictDetected() {
+        ImplicationGraph graph =
+                sccTwoSAT.formImplicationGraph(new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt"));
+        SCCResult result = TarjanSCC.compute(graph);
+        assertFalse(result.isSatisfiable());
+        int conflict = result.getConflictVertex();
+        assertEquals(result.getComponentOf()[conflict], result.getComponentOf()[ImplicationGraph.negate(conflict)]);
+    }
+
+    @Test
+    void testSolveReturnsModel() throws IOException {
+        for (String name : new String[]{"/src/tests/scc/test2.txt", "/src/tests/papa/test1.txt", "/src/tests/papa/test3.txt"}) {
+            File file = new File(System.getProperty("user.dir") + name);
+            BitSet assignment = sccTwoSAT.solve(file);
+            assertNotNull(assignment);
+            assertTrue(ClauseLoader.load(file).isSatisfiedBy(assignment));
+        }
+        assertNull(sccTwoSAT.solve(new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt")));
+        assertThrows(UncheckedIOException.class, () -> sccTwoSAT.solve(new File("does-not-exist.txt")));
+    }
+
+    @Test
+    void testUnsatisfiabilityWitness() throws IOException {
+        File file = new File(System.getProperty("user.dir") + "/src/tests/papa/test2.txt");
+        UnsatWitness witness = sccTwoSAT.explainUnsatisfiability(file);
+        assertNotNull(witness);
+        int x = witness.getLiteral();
+        assertEquals(-x, followPath(x, witness.getFirstPath()));
+        assertEquals(x, followPath(-x, witness.getSecondPath()));
+        assertWitnessFromFile(witness, file);
+        assertNull(sccTwoSAT.explainUnsatisfiability(
+                new File(System.getProperty("user.dir") + "/src/tests/papa/test1.txt")));
+
+        /* Unit clauses written as (x x) */
+        File units = File.createTempFile("units", ".txt");
+        units.deleteOnExit();
+        Files.writeString(units.toPath(), "2\n1 1\n-1 2\n-2 -1\n");
+        UnsatWitness unitWitness = sccTwoSAT.explainUnsatisfiability(units);
+        assertNotNull(unitWitness);
+        assertWitnessFromFile(unitWitness, units);
+    }
+
+    @Test
+    void testWitnessIsShortInLargeInstance() {
+        /* A satisfiable instance on variables 4.., plus 1 => 2 => NOT 1 and NOT 1 => 3 => 1 */
+        TwoSATInstance noise = InstanceGenerator.planted(100_000, 200_000, 7);
+        int numClauses = noise.getNumClauses() + 4;
+        int[] literals = new int[2 * numClauses];
+        for (int i = 0; i < noise.getNumClauses(); i++) {
+            int first = noise.getFirstLiteral(i);
+            int second = noise.getSecondLiteral(i);
+            literals[2 * i] = first + (first > 0 ? 3 : -3);
+            literals[2 * i + 1] = second + (second > 0 ? 3 : -3);
+        }
+        int[] contradiction = {-1, 2, -2, -1, 1, 3, -3, 1};
+        System.arraycopy(contradiction, 0, literals, 2 * noise.getNumClauses(), contradiction.length);
+        TwoSATInstance instance = new TwoSATInstance(100_003, literals, numClauses);
+
+        UnsatWitness witness = UnsatWitness.find(instance);
+        assertNotNull(witness);
+        /* Variables 1 to 3 share one component; from 1 the proof takes 4 clauses, from 2 or 3 it takes 8 */
+        assertTrue(witness.getClauses().size() <= 8);
+        int x = witness.getLiteral();
+        assertTrue(Math.abs(x) <= 3);
+        assertEquals(-x, followPath(x, witness.getFirstPath()));
+        assertEquals(x, followPath(-x, witness.getSecondPath()));
+        assertNull(UnsatWitness.find(noise));
+    }
+
+    /**
+     * Resolves a chain of clauses from a starting literal, each clause (NOT l OR m) taking l to m
+     * @return the literal reached
+     */
+    private static int followPath(int literal, List<Clause> path) {
+        for (Clause clause : path) {
+            if (clause.firstLiteral == -literal) {
+                literal = clause.secondLiteral;
+            } else {
+                assertEquals(-literal, clause.secondLiteral);
+                literal = clause.firstLiteral;
+            }
+        }
+        return literal;
+    }
+
+    /**
+     * Checks that every clause of a witness appears in the file, in either literal order
+     */
+    private static void assertWitnessFromFile(UnsatWitness witness, File file) throws IOException {
+        TwoSATInstance instance = ClauseLoader.load(file);
+        Set<Long> clauses = new HashSet<>();
+        for (int i = 0; i < instance.getNumClauses(); i++) {
+            clauses.add(clauseKey(instance.getFirstLiteral(i), instance.getSecondLiteral(i)));
+        }
+        for (Clause clause : witness.getClauses()) {
+            assertTrue(clauses.contains(clauseKey(clause.firstLiteral, clause.secondLiteral)));
+        }
+    }
+
+    /**
+     * A key equal for (a OR b) and (b OR a), and defined for (a OR a)
+     */
+    private static long clauseKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | (Math.max(a, b) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,149 @@
+package tests.server;
+
+import main.InstanceGenerator;
+import main.PooledSolver;
+import main.SCCTwoSAT;
+import main.SolverClient;
+import main.SolverProtocol;
+import main.SolverServer;
+import main.TwoSATInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverServerTest {
+
+    private static void assertRoundTrips(SocketAddress address) throws IOException {
+        try (SolverClient client = new SolverClient(address)) {
+            for (int seed = 0; seed < 50; seed++) {
+                TwoSATInstance instance = InstanceGenerator.random(200, 200 + 2 * seed, seed);
+                BitSet assignment = client.solve(instance);
+                assertEquals(new SCCTwoSAT().solve(instance) != null, assignment != null);
+                if (assignment != null) {
+                    assertTrue(instance.isSatisfiedBy(assignment));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTcpRoundTrip() throws IOException {
+        try (SolverServer server = new SolverServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2)) {
+            server.start();
+            assertRoundTrips(server.getAddress());
+        }
+    }
+
+    @Test
+    void testUnixSocketRoundTrip() throws IOException {
+        Path socket = Files.createTempDirectory("solver").resolve("solver.sock");
+        try (SolverServer server = new SolverServer(UnixDomainSocketAddress.of(socket), 2)) {
+            server.start();
+            assertRoundTrips(server.getAddress());
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void testBatchMatchesSeparateSolves() {
+        List<TwoSATInstance> instances = new ArrayList<>();
+        for (int seed = 0; seed < 20; seed++) {
+            instances.add(InstanceGenerator.random(100 + seed, 100 + 5 * seed, seed));
+        }
+        /* x1 and not x1 both forced, in the middle of the batch */
+        instances.add(10, new TwoSATInstance(2, new int[]{1, 1, -1, -1, 1, 2}, 3));
+        PooledSolver solver = new PooledSolver();
+        BitSet[] assignments = solver.solveAll(instances);
+        assertNull(assignments[10]);
+        for (int i = 0; i < instances.size(); i++) {
+            TwoSATInstance instance = instances.get(i);
+            assertEquals(new SCCTwoSAT().solve(instance) != null, assignments[i] != null);
+            assertEquals(assignments[i] != null, solver.solve(instance) != null);
+            if (assignments[i] != null) {
+                assertTrue(instance.isSatisfiedBy(assignments[i]));
+            }
+        }
+    }
+
+    @Test
+    void testTooManyVariablesGetsError() throws IOException {
+        try (SolverServer server = new SolverServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1,
+                100)) {
+            server.start();
+            try (SolverClient client = new SolverClient(server.getAddress())) {
+                /* An empty instance with a huge variable count is a few bytes on the wire */
+                assertThrows(IOException.class, () -> client.solve(new TwoSATInstance((1 << 30) - 1, new int[0], 0)));
+                assertThrows(IOException.class, () -> client.solve(InstanceGenerator.random(101, 10, 1)));
+                TwoSATInstance instance = InstanceGenerator.random(100, 100, 1);
+                assertEquals(new SCCTwoSAT().solve(instance) != null, client.solve(instance) != null);
+            }
+        }
+    }
+
+    @Test
+    void testOversizedFrameClosesConnection() throws IOException {
+        try (SolverServer server = new SolverServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1,
+                100, 100)) {
+            server.start();
+            try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+                /* Only the length is sent; the server must refuse it without waiting for the payload */
+                ByteBuffer frame = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                frame.putInt(SolverProtocol.requestPayloadBytes(101)).flip();
+                channel.write(frame);
+                assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+            }
+            try (SolverClient client = new SolverClient(server.getAddress())) {
+                TwoSATInstance instance = InstanceGenerator.random(100, 100, 2);
+                assertEquals(new SCCTwoSAT().solve(instance) != null, client.solve(instance) != null);
+            }
+        }
+    }
+
+    @Test
+    void testTrimmedSolverStillSolves() {
+        PooledSolver solver = new PooledSolver();
+        TwoSATInstance large = InstanceGenerator.planted(5000, 10000, 4);
+        assertTrue(large.isSatisfiedBy(solver.solve(large)));
+        solver.trim(100, 100);
+        TwoSATInstance small = InstanceGenerator.planted(50, 100, 5);
+        assertTrue(small.isSatisfiedBy(solver.solve(small)));
+        assertTrue(large.isSatisfiedBy(solver.solve(large)));
+    }
+
+    @Test
+    void testBadLiteralGetsError() throws IOException {
+        try (SolverServer server = new SolverServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1)) {
+            server.start();
+            try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+                ByteBuffer frame = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+                frame.putInt(16).putInt(2).putInt(1).putInt(1).putInt(3).flip();
+                channel.write(frame);
+                ByteBuffer payload = SolverProtocol.readFrame(channel,
+                        ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN));
+                assertEquals(SolverProtocol.ERROR, payload.get(0));
+                assertThrows(IOException.class, () -> SolverProtocol.decodeResponse(payload));
+
+                /* The connection survives a rejected request */
+                TwoSATInstance instance = new TwoSATInstance(2, new int[]{1, 2, -1, 2}, 2);
+                SolverProtocol.writeRequest(channel, instance);
+                BitSet assignment = SolverProtocol.decodeResponse(SolverProtocol.readFrame(channel,
+                        ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN)));
+                assertTrue(instance.isSatisfiedBy(assignment));
+            }
+        }
+    }
+}